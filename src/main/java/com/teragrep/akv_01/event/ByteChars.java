@@ -0,0 +1,92 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Presents the bytes of a UTF-8 payload as characters without decoding them, for {@link JsonCandidate}. ASCII bytes are
+ * the characters they encode. Bytes of multibyte sequences are presented as characters between 0x80 and 0xFF, which,
+ * like the non-ASCII characters they encode, are neither whitespace nor structural characters of JSON.
+ */
+final class ByteChars implements CharSequence {
+
+    // reads a byte as unsigned
+    private static final int byteMask = 0xFF;
+
+    private final ByteBuffer buffer;
+
+    ByteChars(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int length() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (buffer.get(buffer.position() + index) & byteMask);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(buffer.position() + start);
+        slice.limit(buffer.position() + end);
+        return new ByteChars(slice.slice());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder(length());
+        for (int i = 0; i < length(); i++) {
+            stringBuilder.append(charAt(i));
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.event.metadata.offset.EventOffset;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContext;
+import com.teragrep.akv_01.event.metadata.properties.EventProperties;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
+import com.teragrep.akv_01.json.PooledJsonReaderFactory;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.JsonStructure;
+import jakarta.json.stream.JsonParsingException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * UnparsedEvent of a UTF-8 encoded payload, as received in EventHub event bodies. {@link #parseJson()} reads the bytes
+ * directly and {@link #payload()} decodes them only when first called, so parsing does not first copy the payload into
+ * a String. Payloads parse to the same result as the decoded String would with {@link UnparsedEventImpl}. The bytes are
+ * not copied, the caller must not modify them after construction.
+ */
+public final class ByteUnparsedEvent implements UnparsedEvent {
+
+    private static final JsonReaderFactory defaultReaderFactory = new PooledJsonReaderFactory();
+
+    private final ByteBuffer payloadBytes;
+    private final EventPartitionContext partitionCtx;
+    private final EventProperties eventProperties;
+    private final EventSystemProperties eventSystemProperties;
+    private final EnqueuedTime enqueuedTimeUtc;
+    private final EventOffset eventOffset;
+    private final JsonReaderFactory readerFactory;
+    private final AtomicReference<String> payload;
+
+    /**
+     * @param payloadBytes     UTF-8 encoded payload
+     * @param partitionCtx     partition context of the event
+     * @param properties       properties of the event
+     * @param systemProperties system properties of the event
+     * @param enqueuedTimeUtc  enqueued time of the event
+     * @param offset           offset of the event
+     */
+    public ByteUnparsedEvent(
+            final byte[] payloadBytes,
+            final EventPartitionContext partitionCtx,
+            final EventProperties properties,
+            final EventSystemProperties systemProperties,
+            final EnqueuedTime enqueuedTimeUtc,
+            final EventOffset offset
+    ) {
+        this(ByteBuffer.wrap(payloadBytes), partitionCtx, properties, systemProperties, enqueuedTimeUtc, offset);
+    }
+
+    /**
+     * @param payloadBytes     the remaining bytes of the buffer are the payload, the position of the buffer is not
+     *                         changed
+     * @param partitionCtx     partition context of the event
+     * @param properties       properties of the event
+     * @param systemProperties system properties of the event
+     * @param enqueuedTimeUtc  enqueued time of the event
+     * @param offset           offset of the event
+     */
+    public ByteUnparsedEvent(
+            final ByteBuffer payloadBytes,
+            final EventPartitionContext partitionCtx,
+            final EventProperties properties,
+            final EventSystemProperties systemProperties,
+            final EnqueuedTime enqueuedTimeUtc,
+            final EventOffset offset
+    ) {
+        this(payloadBytes, partitionCtx, properties, systemProperties, enqueuedTimeUtc, offset, defaultReaderFactory);
+    }
+
+    /**
+     * Constructor with a caller provided reader factory, see {@link UnparsedEventImpl}. The reader factory does not
+     * take part in equality.
+     *
+     * @param payloadBytes     the remaining bytes of the buffer are the payload, the position of the buffer is not
+     *                         changed
+     * @param partitionCtx     partition context of the event
+     * @param properties       properties of the event
+     * @param systemProperties system properties of the event
+     * @param enqueuedTimeUtc  enqueued time of the event
+     * @param offset           offset of the event
+     * @param readerFactory    factory of the readers parsing the payload
+     */
+    public ByteUnparsedEvent(
+            final ByteBuffer payloadBytes,
+            final EventPartitionContext partitionCtx,
+            final EventProperties properties,
+            final EventSystemProperties systemProperties,
+            final EnqueuedTime enqueuedTimeUtc,
+            final EventOffset offset,
+            final JsonReaderFactory readerFactory
+    ) {
+        this.payloadBytes = payloadBytes.duplicate();
+        this.partitionCtx = partitionCtx;
+        this.eventProperties = properties;
+        this.eventSystemProperties = systemProperties;
+        this.enqueuedTimeUtc = enqueuedTimeUtc;
+        this.eventOffset = offset;
+        this.readerFactory = readerFactory;
+        this.payload = new AtomicReference<>();
+    }
+
+    @Override
+    public JsonStructure parseJson() throws JsonParsingException {
+        // decoded here instead of by the parser, a byte order mark is rejected the same way as in the decoded String
+        try (final JsonReader jsonReader = readerFactory.createReader(new Utf8Reader(payloadBytes.duplicate()))) {
+            return jsonReader.read();
+        }
+    }
+
+    @Override
+    public boolean isJsonCandidate() {
+        return new JsonCandidate(new ByteChars(payloadBytes)).isCandidate();
+    }
+
+    @Override
+    public String payload() {
+        String decoded = payload.get();
+        if (decoded == null) {
+            // concurrent callers may both decode, the results are equal
+            decoded = decode();
+            payload.set(decoded);
+        }
+        return decoded;
+    }
+
+    private String decode() {
+        final String decoded;
+        if (payloadBytes.hasArray()) {
+            decoded = new String(
+                    payloadBytes.array(),
+                    payloadBytes.arrayOffset() + payloadBytes.position(),
+                    payloadBytes.remaining(),
+                    StandardCharsets.UTF_8
+            );
+        }
+        else {
+            decoded = StandardCharsets.UTF_8.decode(payloadBytes.duplicate()).toString();
+        }
+        return decoded;
+    }
+
+    @Override
+    public EventPartitionContext partitionCtx() {
+        return partitionCtx;
+    }
+
+    @Override
+    public EventProperties properties() {
+        return eventProperties;
+    }
+
+    @Override
+    public EventSystemProperties systemProperties() {
+        return eventSystemProperties;
+    }
+
+    @Override
+    public EnqueuedTime enqueuedTimeUtc() {
+        return enqueuedTimeUtc;
+    }
+
+    @Override
+    public EventOffset offset() {
+        return eventOffset;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ByteUnparsedEvent that = (ByteUnparsedEvent) o;
+        return Objects.equals(payloadBytes, that.payloadBytes)
+                && Objects.equals(partitionCtx, that.partitionCtx) && Objects.equals(eventProperties, that.eventProperties) && Objects.equals(eventSystemProperties, that.eventSystemProperties) && Objects.equals(enqueuedTimeUtc, that.enqueuedTimeUtc) && Objects.equals(eventOffset, that.eventOffset);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects
+                .hash(payloadBytes, partitionCtx, eventProperties, eventSystemProperties, enqueuedTimeUtc, eventOffset);
+    }
+}
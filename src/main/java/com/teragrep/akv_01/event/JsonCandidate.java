@@ -0,0 +1,100 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+/**
+ * Cheap pre-classification of a payload before it is handed to the JSON parser. Looks only at the first two structural
+ * characters and rejects payloads from which the parser cannot read a JSON object or array. Anything else is left for
+ * the parser to decide.
+ */
+final class JsonCandidate {
+
+    private final CharSequence payload;
+
+    JsonCandidate(final CharSequence payload) {
+        this.payload = payload;
+    }
+
+    boolean isCandidate() {
+        final int first = skipWhitespace(0);
+        final boolean candidate;
+        if (first == payload.length()) {
+            // empty or only whitespace
+            candidate = false;
+        }
+        else if (payload.charAt(first) == '{') {
+            final int second = skipWhitespace(first + 1);
+            candidate = second < payload.length() && (payload.charAt(second) == '"' || payload.charAt(second) == '}');
+        }
+        else if (payload.charAt(first) == '[') {
+            final int second = skipWhitespace(first + 1);
+            candidate = second < payload.length()
+                    && (payload.charAt(second) == ']' || isValueStart(payload.charAt(second)));
+        }
+        else {
+            // JsonReader#read() only returns structures, a leading scalar such as "123 abc" fails with a bare
+            // JsonException instead of JsonParsingException
+            candidate = false;
+        }
+        return candidate;
+    }
+
+    private int skipWhitespace(final int from) {
+        int index = from;
+        while (index < payload.length() && isWhitespace(payload.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private boolean isValueStart(final char c) {
+        return c == '{' || c == '[' || c == '"' || c == '-' || c >= '0' && c <= '9' || c == 't' || c == 'f' || c == 'n';
+    }
+}
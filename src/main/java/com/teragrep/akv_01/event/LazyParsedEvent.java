@@ -0,0 +1,150 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.event.metadata.offset.EventOffset;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContext;
+import com.teragrep.akv_01.event.metadata.properties.EventProperties;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
+import jakarta.json.JsonStructure;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ParsedEvent that parses the payload only when the JSON representation is first needed. The result is memoized, the
+ * payload is parsed at most once even when accessed from multiple threads. Payload and metadata are served without
+ * parsing.
+ */
+public final class LazyParsedEvent implements ParsedEvent {
+
+    private final UnparsedEvent event;
+    private final AtomicReference<ParsedEvent> parsed;
+
+    public LazyParsedEvent(final UnparsedEvent event) {
+        this.event = event;
+        this.parsed = new AtomicReference<>();
+    }
+
+    private ParsedEvent parsed() {
+        ParsedEvent parsedEvent = parsed.get();
+        if (parsedEvent == null) {
+            synchronized (parsed) {
+                parsedEvent = parsed.get();
+                if (parsedEvent == null) {
+                    parsedEvent = new ParsedEventFactory(event).parsedEvent();
+                    parsed.set(parsedEvent);
+                }
+            }
+        }
+        return parsedEvent;
+    }
+
+    @Override
+    public JsonStructure asJsonStructure() {
+        return parsed().asJsonStructure();
+    }
+
+    @Override
+    public boolean isJsonStructure() {
+        return parsed().isJsonStructure();
+    }
+
+    @Override
+    public String asString() {
+        return event.payload();
+    }
+
+    @Override
+    public String resourceId() {
+        return parsed().resourceId();
+    }
+
+    @Override
+    public String payload() {
+        return event.payload();
+    }
+
+    @Override
+    public EventPartitionContext partitionCtx() {
+        return event.partitionCtx();
+    }
+
+    @Override
+    public EventProperties properties() {
+        return event.properties();
+    }
+
+    @Override
+    public EventSystemProperties systemProperties() {
+        return event.systemProperties();
+    }
+
+    @Override
+    public EnqueuedTime enqueuedTimeUtc() {
+        return event.enqueuedTimeUtc();
+    }
+
+    @Override
+    public EventOffset offset() {
+        return event.offset();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final LazyParsedEvent that = (LazyParsedEvent) o;
+        return Objects.equals(event, that.event);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(event);
+    }
+}
@@ -46,8 +46,11 @@
 package com.teragrep.akv_01.event;
 
 import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonStructure;
 import jakarta.json.JsonValue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public final class MultiRecordEvent {
@@ -59,31 +62,9 @@ public final class MultiRecordEvent {
     }
 
     public boolean isValid() {
-        boolean valid = true;
-        if (!parsedEvent.isJsonStructure()) {
-            // not json structure
-            valid = false;
-        }
-
-        if (valid && !parsedEvent.asJsonStructure().getValueType().equals(JsonValue.ValueType.OBJECT)) {
-            // not json object
-            valid = false;
-        }
-
-        if (
-            valid && (!parsedEvent.asJsonStructure().asJsonObject().containsKey("records") || !parsedEvent
-                    .asJsonStructure()
-                    .asJsonObject()
-                    .get("records")
-                    .getValueType()
-                    .equals(JsonValue.ValueType.ARRAY))
-        ) {
-            // no records array
-            valid = false;
-        }
-
+        final JsonArray recordsArray = recordsArray();
+        boolean valid = recordsArray != null;
         if (valid) {
-            final JsonArray recordsArray = parsedEvent.asJsonStructure().asJsonObject().getJsonArray("records");
             for (final JsonValue record : recordsArray) {
                 if (!record.getValueType().equals(JsonValue.ValueType.OBJECT)) {
                     valid = false;
@@ -91,30 +72,56 @@ public final class MultiRecordEvent {
                 }
             }
         }
-
         return valid;
     }
 
     public List<ParsedEvent> records() {
-        if (!isValid()) {
-            throw new IllegalStateException("Event is not a multi record event");
+        return multiRecords().records();
+    }
+
+    /**
+     * Validates the event and extracts its records in a single pass over the records array. Prefer this over calling
+     * {@link #isValid()} before {@link #records()}, which walks the envelope twice.
+     *
+     * @return records of the event, or {@link NotMultiRecords} if the event is not a multi record event
+     */
+    public MultiRecords multiRecords() {
+        final JsonArray recordsArray = recordsArray();
+        MultiRecords multiRecords = new NotMultiRecords();
+        if (recordsArray != null) {
+            final List<ParsedEvent> records = new ArrayList<>(recordsArray.size());
+            for (final JsonValue record : recordsArray) {
+                if (!record.getValueType().equals(JsonValue.ValueType.OBJECT)) {
+                    records.clear();
+                    break;
+                }
+                final JsonObject recordObject = record.asJsonObject();
+                records.add(new JSONEvent(new RecordEvent(parsedEvent, recordObject), recordObject));
+            }
+            if (records.size() == recordsArray.size()) {
+                multiRecords = new MultiRecordsImpl(records);
+            }
+        }
+        return multiRecords;
+    }
+
+    private JsonArray recordsArray() {
+        JsonArray recordsArray = null;
+        final JsonValue records = recordsValue();
+        if (records != null && records.getValueType().equals(JsonValue.ValueType.ARRAY)) {
+            recordsArray = records.asJsonArray();
         }
+        return recordsArray;
+    }
 
-        return parsedEvent
-                .asJsonStructure()
-                .asJsonObject()
-                .getJsonArray("records")
-                .getValuesAs(
-                        jsonValue -> new ParsedEventFactory(
-                                new UnparsedEventImpl(
-                                        jsonValue.asJsonObject().toString(),
-                                        parsedEvent.partitionCtx(),
-                                        parsedEvent.properties(),
-                                        parsedEvent.systemProperties(),
-                                        parsedEvent.enqueuedTimeUtc(),
-                                        parsedEvent.offset()
-                                )
-                        ).parsedEvent()
-                );
+    private JsonValue recordsValue() {
+        JsonValue records = null;
+        if (parsedEvent.isJsonStructure()) {
+            final JsonStructure structure = parsedEvent.asJsonStructure();
+            if (structure.getValueType().equals(JsonValue.ValueType.OBJECT)) {
+                records = structure.asJsonObject().get("records");
+            }
+        }
+        return records;
     }
 }
@@ -57,12 +57,29 @@ public final class ParsedEventFactory {
     }
 
     public ParsedEvent parsedEvent() {
-        try {
-            final JsonStructure jsonStructure = event.parseJson();
-            return new JSONEvent(event, jsonStructure);
+        ParsedEvent parsedEvent;
+        if (!event.isJsonCandidate()) {
+            // parser would reject the payload, avoid constructing the exception
+            parsedEvent = new PlainEvent(event);
         }
-        catch (final JsonParsingException ignored) {
-            return new PlainEvent(event);
+        else {
+            try {
+                final JsonStructure jsonStructure = event.parseJson();
+                parsedEvent = new JSONEvent(event, jsonStructure);
+            }
+            catch (final JsonParsingException ignored) {
+                parsedEvent = new PlainEvent(event);
+            }
         }
+        return parsedEvent;
+    }
+
+    /**
+     * Returns a ParsedEvent that defers parsing until its JSON representation is first accessed.
+     *
+     * @return lazily parsed event
+     */
+    public ParsedEvent lazyParsedEvent() {
+        return new LazyParsedEvent(event);
     }
 }
@@ -60,23 +60,30 @@ import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeStub;
+import com.teragrep.akv_01.json.PooledJsonReaderFactory;
+import jakarta.json.JsonReaderFactory;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public final class ParsedEventListFactory {
 
+    private static final EventPartitionContext eventPartitionContextStub = new EventPartitionContextStub();
+    private static final EventProperties eventPropertiesStub = new EventPropertiesStub();
+    private static final EventSystemProperties eventSystemPropertiesStub = new EventSystemPropertiesStub();
+    private static final EnqueuedTime enqueuedTimeStub = new EnqueuedTimeStub();
+    private static final EventOffset eventOffsetStub = new EventOffsetStub();
+    private static final JsonReaderFactory defaultReaderFactory = new PooledJsonReaderFactory();
+
     private final String[] payloads;
     private final Map<String, Object> partitionCtx;
     private final Map<String, Object>[] propertiesArray;
     private final Map<String, Object>[] systemPropertiesArray;
     private final List<Object> enqueuedTimeUtcList;
     private final List<String> offsetList;
-
-    private static final EventPartitionContext eventPartitionContextStub = new EventPartitionContextStub();
-    private static final EventProperties eventPropertiesStub = new EventPropertiesStub();
-    private static final EventSystemProperties eventSystemPropertiesStub = new EventSystemPropertiesStub();
-    private static final EnqueuedTime enqueuedTimeStub = new EnqueuedTimeStub();
-    private static final EventOffset eventOffsetStub = new EventOffsetStub();
+    private final JsonReaderFactory readerFactory;
 
     public ParsedEventListFactory(
             final String[] payloads,
@@ -85,6 +92,26 @@ public final class ParsedEventListFactory {
             final Map<String, Object>[] systemPropertiesArray,
             final List<Object> enqueuedTimeUtcList,
             final List<String> offsetList
+    ) {
+        this(
+                payloads,
+                partitionCtx,
+                propertiesArray,
+                systemPropertiesArray,
+                enqueuedTimeUtcList,
+                offsetList,
+                defaultReaderFactory
+        );
+    }
+
+    public ParsedEventListFactory(
+            final String[] payloads,
+            final Map<String, Object> partitionCtx,
+            final Map<String, Object>[] propertiesArray,
+            final Map<String, Object>[] systemPropertiesArray,
+            final List<Object> enqueuedTimeUtcList,
+            final List<String> offsetList,
+            final JsonReaderFactory readerFactory
     ) {
         this.payloads = payloads;
         this.partitionCtx = partitionCtx;
@@ -92,56 +119,169 @@ public final class ParsedEventListFactory {
         this.systemPropertiesArray = systemPropertiesArray;
         this.enqueuedTimeUtcList = enqueuedTimeUtcList;
         this.offsetList = offsetList;
+        this.readerFactory = readerFactory;
     }
 
     public List<ParsedEvent> asList() {
-        final List<ParsedEvent> events = new ArrayList<>(payloads.length);
-        for (int i = 0; i < payloads.length; i++) {
-            if (payloads[i] != null) {
-                EventPartitionContext eventPartitionContext = eventPartitionContextStub;
-                EventProperties eventProperties = eventPropertiesStub;
-                EventSystemProperties eventSystemProperties = eventSystemPropertiesStub;
-                EnqueuedTime enqueuedTime = enqueuedTimeStub;
-                EventOffset eventOffset = eventOffsetStub;
-
-                if (partitionCtx != null) {
-                    eventPartitionContext = new EventPartitionContextImpl(partitionCtx);
-                }
+        return parsedEvents(0, payloads.length);
+    }
 
-                if (propertiesArray != null && propertiesArray[i] != null) {
-                    eventProperties = new EventPropertiesImpl(propertiesArray[i]);
-                }
+    /**
+     * Same as {@link #asList()}, but batches of more than {@code splitSize} payloads are split into chunks of
+     * {@code splitSize} payloads that are parsed on the given executor. The calling thread parses the first chunk
+     * itself. The returned list keeps the order of the payloads.
+     *
+     * @param executor  executor used to parse the chunks
+     * @param splitSize batch size up to which the batch is parsed on the calling thread, and the size of each chunk
+     * @return list of parsed events
+     */
+    public List<ParsedEvent> asParallelList(final Executor executor, final int splitSize) {
+        if (splitSize < 1) {
+            throw new IllegalArgumentException("Split size must be positive, got <" + splitSize + ">");
+        }
+        final List<ParsedEvent> events;
+        if (payloads.length <= splitSize) {
+            events = asList();
+        }
+        else {
+            events = parallelEvents(executor, splitSize);
+        }
+        return events;
+    }
 
-                if (systemPropertiesArray != null && systemPropertiesArray[i] != null) {
-                    eventSystemProperties = new EventSystemPropertiesImpl(systemPropertiesArray[i]);
-                }
+    private List<ParsedEvent> parallelEvents(final Executor executor, final int splitSize) {
+        final List<CompletableFuture<List<ParsedEvent>>> chunks = new ArrayList<>();
+        for (int from = splitSize; from < payloads.length; from += splitSize) {
+            final int start = from;
+            final int end = Math.min(from + splitSize, payloads.length);
+            chunks.add(CompletableFuture.supplyAsync(() -> parsedEvents(start, end), executor));
+        }
 
-                if (enqueuedTimeUtcList != null && enqueuedTimeUtcList.get(i) != null) {
-                    enqueuedTime = new EnqueuedTimeImpl(enqueuedTimeUtcList.get(i));
+        final List<ParsedEvent> events = new ArrayList<>(payloads.length);
+        boolean parsed = false;
+        try {
+            events.addAll(parsedEvents(0, splitSize));
+            for (final CompletableFuture<List<ParsedEvent>> chunk : chunks) {
+                events.addAll(chunk.join());
+            }
+            parsed = true;
+        }
+        catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        finally {
+            if (!parsed) {
+                // the batch has failed, chunks that have not started are not parsed
+                for (final CompletableFuture<List<ParsedEvent>> chunk : chunks) {
+                    chunk.cancel(false);
                 }
+            }
+        }
+        return events;
+    }
 
-                if (offsetList != null && offsetList.get(i) != null) {
-                    eventOffset = new EventOffsetImpl(offsetList.get(i));
-                }
+    private List<ParsedEvent> parsedEvents(final int from, final int to) {
+        final EventPartitionContext eventPartitionContext = eventPartitionContext();
+        UnparsedEvent previous = null;
+        final List<ParsedEvent> events = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            if (payloads[i] != null) {
+                final UnparsedEvent event = unparsedEvent(i, eventPartitionContext, previous);
+                events.add(new ParsedEventFactory(event).parsedEvent());
+                previous = event;
+            }
+        }
+        return events;
+    }
 
-                events
-                        .add(
-                                new ParsedEventFactory(
-                                        new UnparsedEventImpl(
-                                                payloads[i],
-                                                eventPartitionContext,
-                                                eventProperties,
-                                                eventSystemProperties,
-                                                enqueuedTime,
-                                                eventOffset
-                                        )
-                                ).parsedEvent()
-                        );
+    /**
+     * Same as {@link #asList()}, but the payloads are parsed only when the JSON representation of an event is first
+     * accessed.
+     *
+     * @return list of lazily parsed events
+     */
+    public List<ParsedEvent> asLazyList() {
+        final EventPartitionContext eventPartitionContext = eventPartitionContext();
+        UnparsedEvent previous = null;
+        final List<ParsedEvent> events = new ArrayList<>(payloads.length);
+        for (int i = 0; i < payloads.length; i++) {
+            if (payloads[i] != null) {
+                final UnparsedEvent event = unparsedEvent(i, eventPartitionContext, previous);
+                events.add(new ParsedEventFactory(event).lazyParsedEvent());
+                previous = event;
             }
         }
         return events;
     }
 
+    private EventPartitionContext eventPartitionContext() {
+        EventPartitionContext eventPartitionContext = eventPartitionContextStub;
+        if (partitionCtx != null) {
+            eventPartitionContext = new EventPartitionContextImpl(partitionCtx);
+        }
+        return eventPartitionContext;
+    }
+
+    /**
+     * Builds the metadata of the i:th event. The partition context is shared by the whole batch. Properties and system
+     * properties are reused from the previous event when it was built from the same map instance.
+     */
+    private UnparsedEvent unparsedEvent(
+            final int i,
+            final EventPartitionContext eventPartitionContext,
+            final UnparsedEvent previous
+    ) {
+        EventProperties eventProperties = eventPropertiesStub;
+        EventSystemProperties eventSystemProperties = eventSystemPropertiesStub;
+        EnqueuedTime enqueuedTime = enqueuedTimeStub;
+        EventOffset eventOffset = eventOffsetStub;
+
+        if (propertiesArray != null && propertiesArray[i] != null) {
+            if (
+                previous != null && !previous.properties().isStub()
+                        && previous.properties().asMap() == propertiesArray[i]
+            ) {
+                eventProperties = previous.properties();
+            }
+            else {
+                eventProperties = new EventPropertiesImpl(propertiesArray[i]);
+            }
+        }
+
+        if (systemPropertiesArray != null && systemPropertiesArray[i] != null) {
+            if (
+                previous != null && !previous.systemProperties().isStub()
+                        && previous.systemProperties().asMap() == systemPropertiesArray[i]
+            ) {
+                eventSystemProperties = previous.systemProperties();
+            }
+            else {
+                eventSystemProperties = new EventSystemPropertiesImpl(systemPropertiesArray[i]);
+            }
+        }
+
+        if (enqueuedTimeUtcList != null && enqueuedTimeUtcList.get(i) != null) {
+            enqueuedTime = new EnqueuedTimeImpl(enqueuedTimeUtcList.get(i));
+        }
+
+        if (offsetList != null && offsetList.get(i) != null) {
+            eventOffset = new EventOffsetImpl(offsetList.get(i));
+        }
+
+        return new UnparsedEventImpl(
+                payloads[i],
+                eventPartitionContext,
+                eventProperties,
+                eventSystemProperties,
+                enqueuedTime,
+                eventOffset,
+                readerFactory
+        );
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -0,0 +1,123 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.event.metadata.offset.EventOffset;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContext;
+import com.teragrep.akv_01.event.metadata.properties.EventProperties;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
+import jakarta.json.JsonObject;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A single record of a multi record event. Metadata is shared with the enclosing event, and the payload is serialized
+ * from the already parsed record only when it is requested.
+ */
+public final class RecordEvent implements Event {
+
+    private final Event event;
+    private final JsonObject record;
+    private final AtomicReference<String> payload;
+
+    public RecordEvent(final Event event, final JsonObject record) {
+        this.event = event;
+        this.record = record;
+        this.payload = new AtomicReference<>();
+    }
+
+    @Override
+    public String payload() {
+        String serialized = payload.get();
+        if (serialized == null) {
+            // serialization is deterministic, concurrent callers may race but will store an equal value
+            serialized = record.toString();
+            payload.set(serialized);
+        }
+        return serialized;
+    }
+
+    @Override
+    public EventPartitionContext partitionCtx() {
+        return event.partitionCtx();
+    }
+
+    @Override
+    public EventProperties properties() {
+        return event.properties();
+    }
+
+    @Override
+    public EventSystemProperties systemProperties() {
+        return event.systemProperties();
+    }
+
+    @Override
+    public EnqueuedTime enqueuedTimeUtc() {
+        return event.enqueuedTimeUtc();
+    }
+
+    @Override
+    public EventOffset offset() {
+        return event.offset();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final RecordEvent that = (RecordEvent) o;
+        return Objects.equals(event, that.event) && Objects.equals(record, that.record);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(event, record);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import jakarta.json.JsonObject;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks the records array of a multi record event with a {@link JsonParser}, materializing one record at a time. Other
+ * top-level keys of the envelope are skipped without building their values.
+ */
+final class RecordIterator implements Iterator<ParsedEvent>, AutoCloseable {
+
+    private final Event event;
+    private final JsonParser parser;
+    private boolean positioned;
+    private boolean exhausted;
+    private ParsedEvent next;
+
+    RecordIterator(final Event event, final JsonParser parser) {
+        this.event = event;
+        this.parser = parser;
+        this.positioned = false;
+        this.exhausted = false;
+        this.next = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !exhausted) {
+            try {
+                advance();
+            }
+            catch (final JsonParsingException e) {
+                close();
+                throw new IllegalStateException("Event is not a multi record event", e);
+            }
+            catch (final IllegalStateException e) {
+                close();
+                throw e;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public ParsedEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more records");
+        }
+        final ParsedEvent record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        next = null;
+        parser.close();
+    }
+
+    private void advance() {
+        if (!positioned) {
+            positionAtRecords();
+            positioned = true;
+        }
+
+        final JsonParser.Event current = parser.next();
+        if (current == JsonParser.Event.START_OBJECT) {
+            final JsonObject record = parser.getObject();
+            next = new JSONEvent(new RecordEvent(event, record), record);
+        }
+        else if (current == JsonParser.Event.END_ARRAY) {
+            // rest of the envelope is only checked for well-formedness
+            while (parser.hasNext()) {
+                parser.next();
+            }
+            close();
+        }
+        else {
+            throw new IllegalStateException("Event is not a multi record event, expected only objects in records");
+        }
+    }
+
+    private void positionAtRecords() {
+        if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+            throw new IllegalStateException("Event is not a multi record event, expected JSON object");
+        }
+
+        JsonParser.Event current = parser.next();
+        while (current == JsonParser.Event.KEY_NAME) {
+            final boolean isRecords = "records".equals(parser.getString());
+            final JsonParser.Event value = parser.next();
+            if (isRecords) {
+                if (value != JsonParser.Event.START_ARRAY) {
+                    throw new IllegalStateException("Event is not a multi record event, records is not an array");
+                }
+                return;
+            }
+            skip(value);
+            current = parser.next();
+        }
+
+        throw new IllegalStateException("Event is not a multi record event, no records array");
+    }
+
+    private void skip(final JsonParser.Event value) {
+        if (value == JsonParser.Event.START_OBJECT) {
+            parser.skipObject();
+        }
+        else if (value == JsonParser.Event.START_ARRAY) {
+            parser.skipArray();
+        }
+    }
+}
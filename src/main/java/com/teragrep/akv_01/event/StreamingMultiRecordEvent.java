@@ -0,0 +1,109 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParserFactory;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming counterpart of {@link MultiRecordEvent}. The envelope is never materialized as a whole, records are parsed
+ * one by one as the returned stream is consumed. Envelopes that are not multi record events are reported with
+ * {@link IllegalStateException} when the stream reaches the offending part of the payload.
+ */
+public final class StreamingMultiRecordEvent {
+
+    private static final JsonParserFactory defaultParserFactory = Json.createParserFactory(Collections.emptyMap());
+
+    private final UnparsedEvent event;
+    private final JsonParserFactory parserFactory;
+
+    public StreamingMultiRecordEvent(final UnparsedEvent event) {
+        this(event, defaultParserFactory);
+    }
+
+    public StreamingMultiRecordEvent(final UnparsedEvent event, final JsonParserFactory parserFactory) {
+        this.event = event;
+        this.parserFactory = parserFactory;
+    }
+
+    /**
+     * Returns the records of the event as a lazy stream. The stream holds an open parser and should be closed if it is
+     * not fully consumed.
+     *
+     * @return stream of records, in the order they appear in the records array
+     */
+    public Stream<ParsedEvent> records() {
+        final RecordIterator iterator = new RecordIterator(
+                event,
+                parserFactory.createParser(new StringReader(event.payload()))
+        );
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final StreamingMultiRecordEvent that = (StreamingMultiRecordEvent) o;
+        return Objects.equals(event, that.event);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(event);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * Extracts the top-level resourceId of an event payload with a {@link JsonParser} instead of building the whole JSON
+ * structure. Scanning stops at the first top-level resourceId key, nested structures and values of other keys are
+ * skipped without being materialized. Missing or non-string resourceId is reported with the same {@link JsonException}
+ * messages as {@link JSONEvent#resourceId()}, malformed JSON before the resourceId with
+ * {@link jakarta.json.stream.JsonParsingException}.
+ */
+public final class StreamingResourceId {
+
+    private static final JsonParserFactory defaultParserFactory = Json.createParserFactory(Collections.emptyMap());
+
+    private final Event event;
+    private final JsonParserFactory parserFactory;
+
+    public StreamingResourceId(final Event event) {
+        this(event, defaultParserFactory);
+    }
+
+    public StreamingResourceId(final Event event, final JsonParserFactory parserFactory) {
+        this.event = event;
+        this.parserFactory = parserFactory;
+    }
+
+    public String resourceId() {
+        final String resourceIdKey = "resourceId";
+
+        try (final JsonParser parser = parserFactory.createParser(new StringReader(event.payload()))) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+                throw new JsonException("Missing main structure, expected JSON object");
+            }
+
+            JsonParser.Event current = parser.next();
+            while (current == JsonParser.Event.KEY_NAME) {
+                final boolean isResourceId = resourceIdKey.equals(parser.getString());
+                final JsonParser.Event value = parser.next();
+                if (isResourceId) {
+                    if (value != JsonParser.Event.VALUE_STRING) {
+                        throw new JsonException("Key <" + resourceIdKey + "> was not of the expected type String");
+                    }
+                    return parser.getString();
+                }
+
+                if (value == JsonParser.Event.START_OBJECT) {
+                    parser.skipObject();
+                }
+                else if (value == JsonParser.Event.START_ARRAY) {
+                    parser.skipArray();
+                }
+                current = parser.next();
+            }
+        }
+
+        throw new JsonException("Missing key <" + resourceIdKey + "> in main structure");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final StreamingResourceId that = (StreamingResourceId) o;
+        return Objects.equals(event, that.event);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(event);
+    }
+}
@@ -51,4 +51,14 @@ import jakarta.json.stream.JsonParsingException;
 public interface UnparsedEvent extends Event {
 
     public abstract JsonStructure parseJson() throws JsonParsingException;
+
+    /**
+     * Cheap check of the first characters of the payload, done before {@link #parseJson()} to avoid the exception for
+     * payloads that are not JSON.
+     *
+     * @return false if {@link #parseJson()} is certain not to return a JSON object or array
+     */
+    public default boolean isJsonCandidate() {
+        return new JsonCandidate(payload()).isCandidate();
+    }
 }
@@ -50,8 +50,10 @@ import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContext
 import com.teragrep.akv_01.event.metadata.properties.EventProperties;
 import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
+import com.teragrep.akv_01.json.PooledJsonReaderFactory;
 import jakarta.json.Json;
 import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
 import jakarta.json.JsonStructure;
 import jakarta.json.stream.JsonParsingException;
 
@@ -60,12 +62,15 @@ import java.util.Objects;
 
 public final class UnparsedEventImpl implements UnparsedEvent {
 
+    private static final JsonReaderFactory defaultReaderFactory = new PooledJsonReaderFactory();
+
     private final String payload;
     private final EventPartitionContext partitionCtx;
     private final EventProperties eventProperties;
     private final EventSystemProperties eventSystemProperties;
     private final EnqueuedTime enqueuedTimeUtc;
     private final EventOffset eventOffset;
+    private final JsonReaderFactory readerFactory;
 
     public UnparsedEventImpl(
             final String payload,
@@ -74,6 +79,32 @@ public final class UnparsedEventImpl implements UnparsedEvent {
             final EventSystemProperties systemProperties,
             final EnqueuedTime enqueuedTimeUtc,
             final EventOffset offset
+    ) {
+        this(payload, partitionCtx, properties, systemProperties, enqueuedTimeUtc, offset, defaultReaderFactory);
+    }
+
+    /**
+     * Constructor with a caller provided reader factory. Sharing one factory between events avoids the
+     * {@link jakarta.json.spi.JsonProvider} lookup that {@link Json#createReader(java.io.Reader)} does on every call.
+     * The reader factory does not take part in equality, events with the same payload and metadata are equal whichever
+     * factory parses them.
+     *
+     * @param payload          payload of the event
+     * @param partitionCtx     partition context of the event
+     * @param properties       properties of the event
+     * @param systemProperties system properties of the event
+     * @param enqueuedTimeUtc  enqueued time of the event
+     * @param offset           offset of the event
+     * @param readerFactory    factory of the readers parsing the payload
+     */
+    public UnparsedEventImpl(
+            final String payload,
+            final EventPartitionContext partitionCtx,
+            final EventProperties properties,
+            final EventSystemProperties systemProperties,
+            final EnqueuedTime enqueuedTimeUtc,
+            final EventOffset offset,
+            final JsonReaderFactory readerFactory
     ) {
         this.payload = payload;
         this.partitionCtx = partitionCtx;
@@ -81,16 +112,21 @@ public final class UnparsedEventImpl implements UnparsedEvent {
         this.eventSystemProperties = systemProperties;
         this.enqueuedTimeUtc = enqueuedTimeUtc;
         this.eventOffset = offset;
+        this.readerFactory = readerFactory;
     }
 
     public JsonStructure parseJson() throws JsonParsingException {
         try (
-                final StringReader stringReader = new StringReader(payload); final JsonReader jsonReader = Json.createReader(stringReader)
+                final StringReader stringReader = new StringReader(payload); final JsonReader jsonReader = readerFactory.createReader(stringReader)
         ) {
             return jsonReader.read();
         }
     }
 
+    public boolean isJsonCandidate() {
+        return new JsonCandidate(payload).isCandidate();
+    }
+
     public String payload() {
         return payload;
     }
@@ -0,0 +1,112 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the remaining bytes of a UTF-8 buffer straight into the caller's character array, without the intermediate
+ * byte buffer of {@link java.io.InputStreamReader}. Malformed input is replaced the same way as by
+ * {@link String#String(byte[], java.nio.charset.Charset)}. The buffer is consumed, pass a duplicate to keep the
+ * original position.
+ */
+final class Utf8Reader extends Reader {
+
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private final CharBuffer pending;
+
+    Utf8Reader(final ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.decoder = StandardCharsets.UTF_8
+                .newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // low surrogate of a pair that did not fit into the caller's array
+        this.pending = CharBuffer.allocate(2);
+        this.pending.flip();
+    }
+
+    @Override
+    public int read(final char[] chars, final int offset, final int length) {
+        final int read;
+        if (length == 0) {
+            read = 0;
+        }
+        else {
+            final int decoded = decode(chars, offset, length);
+            read = decoded == 0 ? -1 : decoded;
+        }
+        return read;
+    }
+
+    private int decode(final char[] chars, final int offset, final int length) {
+        final CharBuffer out = CharBuffer.wrap(chars, offset, length);
+        if (pending.hasRemaining()) {
+            out.put(pending.get());
+        }
+        // all of the input is available, so every call is the end of input
+        decoder.decode(bytes, out, true);
+        if (out.position() == offset && bytes.hasRemaining()) {
+            // a surrogate pair does not fit into a single char
+            pending.clear();
+            decoder.decode(bytes, pending, true);
+            pending.flip();
+            out.put(pending.get());
+        }
+        return out.position() - offset;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -47,9 +47,26 @@ package com.teragrep.akv_01.event.metadata.time;
 
 import com.teragrep.akv_01.Stubable;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 
 public interface EnqueuedTime extends Stubable {
 
     public abstract ZonedDateTime zonedDateTime();
+
+    /**
+     * Implementations that can provide the instant without building a {@link ZonedDateTime} should override this.
+     *
+     * @return the enqueued time as an instant
+     */
+    public default Instant instant() {
+        return zonedDateTime().toInstant();
+    }
+
+    /**
+     * @return the enqueued time as milliseconds since the epoch
+     */
+    public default long epochMillis() {
+        return instant().toEpochMilli();
+    }
 }
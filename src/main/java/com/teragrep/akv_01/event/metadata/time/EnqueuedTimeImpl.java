@@ -45,22 +45,77 @@
  */
 package com.teragrep.akv_01.event.metadata.time;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * EnqueuedTime of an event. The origin can be an {@link Instant}, a {@link Date}, a {@link Number} of epoch
+ * milliseconds or a UTC date-time string without an offset, such as {@code 2010-01-01T00:00:00}. Instant based origins
+ * are converted without a string round-trip. The ZonedDateTime is computed once and memoized.
+ */
 public final class EnqueuedTimeImpl implements EnqueuedTime {
 
     private final Object origin;
+    private final AtomicReference<ZonedDateTime> zonedDateTime;
 
     public EnqueuedTimeImpl(final Object origin) {
         this.origin = origin;
+        this.zonedDateTime = new AtomicReference<>();
     }
 
     @Override
     public ZonedDateTime zonedDateTime() {
+        ZonedDateTime result = zonedDateTime.get();
+        if (result == null) {
+            // parsing is idempotent, concurrent first calls may both parse
+            result = parsedZonedDateTime();
+            zonedDateTime.set(result);
+        }
+        return result;
+    }
+
+    private ZonedDateTime parsedZonedDateTime() {
         if (origin == null) {
             throw new IllegalArgumentException("EnqueuedTime origin is null");
         }
-        return ZonedDateTime.parse(origin + "Z");
+        final ZonedDateTime result;
+        if (isInstantOrigin()) {
+            result = ZonedDateTime.ofInstant(instant(), ZoneOffset.UTC);
+        }
+        else {
+            result = new UtcTimestamp(origin.toString()).zonedDateTime();
+        }
+        return result;
+    }
+
+    @Override
+    public Instant instant() {
+        final Instant instant;
+        if (origin instanceof Instant) {
+            instant = (Instant) origin;
+        }
+        else if (origin instanceof Date) {
+            instant = ((Date) origin).toInstant();
+        }
+        else if (origin instanceof Number) {
+            instant = Instant.ofEpochMilli(((Number) origin).longValue());
+        }
+        else {
+            instant = zonedDateTime().toInstant();
+        }
+        return instant;
+    }
+
+    @Override
+    public long epochMillis() {
+        return instant().toEpochMilli();
+    }
+
+    private boolean isInstantOrigin() {
+        return origin instanceof Instant || origin instanceof Date || origin instanceof Number;
     }
 
     @Override
@@ -45,6 +45,7 @@
  */
 package com.teragrep.akv_01.event.metadata.time;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 
 public final class EnqueuedTimeStub implements EnqueuedTime {
@@ -54,6 +55,16 @@ public final class EnqueuedTimeStub implements EnqueuedTime {
         throw new UnsupportedOperationException("Stub object does not provide zonedDateTime");
     }
 
+    @Override
+    public Instant instant() {
+        throw new UnsupportedOperationException("Stub object does not provide instant");
+    }
+
+    @Override
+    public long epochMillis() {
+        throw new UnsupportedOperationException("Stub object does not provide epochMillis");
+    }
+
     @Override
     public boolean isStub() {
         return true;
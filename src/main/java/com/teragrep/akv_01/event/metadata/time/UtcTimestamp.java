@@ -0,0 +1,150 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event.metadata.time;
+
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * UTC date-time string without an offset, as delivered by EventHub. The fixed {@code yyyy-MM-ddTHH:mm:ss[.fffffffff]}
+ * shape is parsed directly from the characters. Any other shape, or a field out of range, is handed to
+ * {@link ZonedDateTime#parse(CharSequence)} with a {@code Z} suffix, so results and exceptions are the same as with the
+ * JDK parser.
+ */
+public final class UtcTimestamp {
+
+    // offsets of the fields in yyyy-MM-ddTHH:mm:ss.fffffffff
+    private static final int yearEnd = 4;
+    private static final int monthStart = 5;
+    private static final int monthEnd = 7;
+    private static final int dayStart = 8;
+    private static final int dayEnd = 10;
+    private static final int hourStart = 11;
+    private static final int hourEnd = 13;
+    private static final int minuteStart = 14;
+    private static final int minuteEnd = 16;
+    private static final int secondStart = 17;
+    private static final int secondEnd = 19;
+    private static final int fractionStart = 20;
+    private static final int fractionEnd = 29;
+
+    private static final int maxMonth = 12;
+    private static final int maxHour = 23;
+    private static final int maxMinute = 59;
+    private static final int maxSecond = 59;
+    private static final int radix = 10;
+
+    private final String value;
+
+    public UtcTimestamp(final String value) {
+        this.value = value;
+    }
+
+    public ZonedDateTime zonedDateTime() {
+        ZonedDateTime result = null;
+        if (hasFixedShape()) {
+            final int year = number(0, yearEnd);
+            final int month = number(monthStart, monthEnd);
+            final int day = number(dayStart, dayEnd);
+            final int hour = number(hourStart, hourEnd);
+            final int minute = number(minuteStart, minuteEnd);
+            final int second = number(secondStart, secondEnd);
+            if (
+                month >= 1 && month <= maxMonth && day >= 1 && day <= Month.of(month).length(Year.isLeap(year))
+                        && hour <= maxHour && minute <= maxMinute && second <= maxSecond
+            ) {
+                result = ZonedDateTime.of(year, month, day, hour, minute, second, nanos(), ZoneOffset.UTC);
+            }
+        }
+        if (result == null) {
+            result = ZonedDateTime.parse(value + "Z");
+        }
+        return result;
+    }
+
+    private boolean hasFixedShape() {
+        final int length = value.length();
+        boolean fixedShape = length == secondEnd
+                || length > fractionStart && length <= fractionEnd && value.charAt(secondEnd) == '.';
+        for (int i = 0; fixedShape && i < length; i++) {
+            final char c = value.charAt(i);
+            if (i == yearEnd || i == monthEnd) {
+                fixedShape = c == '-';
+            }
+            else if (i == dayEnd) {
+                fixedShape = c == 'T';
+            }
+            else if (i == hourEnd || i == minuteEnd) {
+                fixedShape = c == ':';
+            }
+            else if (i != secondEnd) {
+                fixedShape = c >= '0' && c <= '9';
+            }
+        }
+        return fixedShape;
+    }
+
+    private int number(final int from, final int to) {
+        int number = 0;
+        for (int i = from; i < to; i++) {
+            number = number * radix + value.charAt(i) - '0';
+        }
+        return number;
+    }
+
+    private int nanos() {
+        int nanos = 0;
+        if (value.length() > secondEnd) {
+            nanos = number(fractionStart, value.length());
+            for (int i = value.length(); i < fractionEnd; i++) {
+                nanos = nanos * radix;
+            }
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable JsonArray backed by an exactly sized array. Equal to any other JsonArray with the same values, as required
+ * by {@link List#equals(Object)}.
+ */
+final class CompactJsonArray extends AbstractList<JsonValue> implements JsonArray, RandomAccess {
+
+    private final JsonValue[] values;
+
+    CompactJsonArray(final JsonValue[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public JsonValue get(final int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public JsonObject getJsonObject(final int index) {
+        return (JsonObject) values[index];
+    }
+
+    @Override
+    public JsonArray getJsonArray(final int index) {
+        return (JsonArray) values[index];
+    }
+
+    @Override
+    public JsonNumber getJsonNumber(final int index) {
+        return (JsonNumber) values[index];
+    }
+
+    @Override
+    public JsonString getJsonString(final int index) {
+        return (JsonString) values[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends JsonValue> List<T> getValuesAs(final Class<T> clazz) {
+        return (List<T>) this;
+    }
+
+    @Override
+    public String getString(final int index) {
+        return getJsonString(index).getString();
+    }
+
+    @Override
+    public String getString(final int index, final String defaultValue) {
+        final JsonValue value = index >= 0 && index < values.length ? values[index] : null;
+        return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+    }
+
+    @Override
+    public int getInt(final int index) {
+        return getJsonNumber(index).intValue();
+    }
+
+    @Override
+    public int getInt(final int index, final int defaultValue) {
+        final JsonValue value = index >= 0 && index < values.length ? values[index] : null;
+        return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(final int index) {
+        final JsonValue value = values[index];
+        final boolean result;
+        if (value == JsonValue.TRUE) {
+            result = true;
+        }
+        else if (value == JsonValue.FALSE) {
+            result = false;
+        }
+        else {
+            throw new ClassCastException("Value at index <" + index + "> was not of the expected type boolean");
+        }
+        return result;
+    }
+
+    @Override
+    public boolean getBoolean(final int index, final boolean defaultValue) {
+        final JsonValue value = index >= 0 && index < values.length ? values[index] : null;
+        final boolean result;
+        if (value == JsonValue.TRUE) {
+            result = true;
+        }
+        else if (value == JsonValue.FALSE) {
+            result = false;
+        }
+        else {
+            result = defaultValue;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isNull(final int index) {
+        return values[index].equals(JsonValue.NULL);
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.ARRAY;
+    }
+
+    @Override
+    public String toString() {
+        return new JsonText(this).toString();
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable JsonObject holding its keys and values in two parallel arrays instead of a map with an entry object per
+ * member. Members keep the order of the source document. Small objects are searched linearly, larger ones through an
+ * open addressing table of member indexes. Equal to any other JsonObject with the same members, as required by
+ * {@link Map#equals(Object)}.
+ */
+final class CompactJsonObject extends AbstractMap<String, JsonValue> implements JsonObject {
+
+    /**
+     * Objects of up to this many members are searched linearly, also used by {@link CompactJsonReader} for duplicate
+     * keys.
+     */
+    static final int maxLinearSearch = 8;
+    // folds the high bits of the hash into the slot
+    private static final int hashSpreadShift = 16;
+
+    private final String[] keys;
+    private final JsonValue[] values;
+    private final int[] index;
+
+    CompactJsonObject(final String[] keys, final JsonValue[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.index = index(keys);
+    }
+
+    private static int[] index(final String[] keys) {
+        final int[] table;
+        if (keys.length <= maxLinearSearch) {
+            table = new int[0];
+        }
+        else {
+            table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+            for (int i = 0; i < keys.length; i++) {
+                int slot = slot(keys[i], table.length);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (table.length - 1);
+                }
+                // 0 marks an empty slot
+                table[slot] = i + 1;
+            }
+        }
+        return table;
+    }
+
+    private static int slot(final Object key, final int tableLength) {
+        final int hash = key.hashCode();
+        return (hash ^ (hash >>> hashSpreadShift)) & (tableLength - 1);
+    }
+
+    private int indexOf(final Object key) {
+        final int result;
+        if (key == null) {
+            result = -1;
+        }
+        else if (index.length == 0) {
+            result = linearIndexOf(key);
+        }
+        else {
+            result = tableIndexOf(key);
+        }
+        return result;
+    }
+
+    private int linearIndexOf(final Object key) {
+        int result = -1;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key || keys[i].equals(key)) {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int tableIndexOf(final Object key) {
+        int result = -1;
+        int slot = slot(key, index.length);
+        while (index[slot] != 0) {
+            if (keys[index[slot] - 1].equals(key)) {
+                result = index[slot] - 1;
+                break;
+            }
+            slot = (slot + 1) & (index.length - 1);
+        }
+        return result;
+    }
+
+    @Override
+    public JsonValue get(final Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public Set<Entry<String, JsonValue>> entrySet() {
+        return new AbstractSet<Entry<String, JsonValue>>() {
+
+            @Override
+            public Iterator<Entry<String, JsonValue>> iterator() {
+                return new Iterator<Entry<String, JsonValue>>() {
+
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, JsonValue> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Entry<String, JsonValue> entry = new SimpleImmutableEntry<>(keys[next], values[next]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public JsonArray getJsonArray(final String name) {
+        return (JsonArray) get(name);
+    }
+
+    @Override
+    public JsonObject getJsonObject(final String name) {
+        return (JsonObject) get(name);
+    }
+
+    @Override
+    public JsonNumber getJsonNumber(final String name) {
+        return (JsonNumber) get(name);
+    }
+
+    @Override
+    public JsonString getJsonString(final String name) {
+        return (JsonString) get(name);
+    }
+
+    @Override
+    public String getString(final String name) {
+        return getJsonString(name).getString();
+    }
+
+    @Override
+    public String getString(final String name, final String defaultValue) {
+        final JsonValue value = get(name);
+        return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+    }
+
+    @Override
+    public int getInt(final String name) {
+        return getJsonNumber(name).intValue();
+    }
+
+    @Override
+    public int getInt(final String name, final int defaultValue) {
+        final JsonValue value = get(name);
+        return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(final String name) {
+        final JsonValue value = get(name);
+        if (value == null) {
+            throw new NullPointerException("Missing key <" + name + ">");
+        }
+        final boolean result;
+        if (value == JsonValue.TRUE) {
+            result = true;
+        }
+        else if (value == JsonValue.FALSE) {
+            result = false;
+        }
+        else {
+            throw new ClassCastException("Key <" + name + "> was not of the expected type boolean");
+        }
+        return result;
+    }
+
+    @Override
+    public boolean getBoolean(final String name, final boolean defaultValue) {
+        final JsonValue value = get(name);
+        final boolean result;
+        if (value == JsonValue.TRUE) {
+            result = true;
+        }
+        else if (value == JsonValue.FALSE) {
+            result = false;
+        }
+        else {
+            result = defaultValue;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isNull(final String name) {
+        return get(name).equals(JsonValue.NULL);
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.OBJECT;
+    }
+
+    @Override
+    public String toString() {
+        return new JsonText(this).toString();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link CompactJsonObject} and {@link CompactJsonArray} trees directly from parser events. Keys are interned
+ * through a {@link KeyDictionary} shared with other readers. Nesting is handled without recursion. Errors are reported
+ * like Parsson's own reader does.
+ */
+final class CompactJsonReader implements JsonReader {
+
+    private final JsonParser parser;
+    private final KeyDictionary keyDictionary;
+    private boolean readDone;
+
+    CompactJsonReader(final JsonParser parser, final KeyDictionary keyDictionary) {
+        this.parser = parser;
+        this.keyDictionary = keyDictionary;
+        this.readDone = false;
+    }
+
+    @Override
+    public JsonStructure read() {
+        final JsonValue value = readValue();
+        if (!(value instanceof JsonStructure)) {
+            // same as parsson, scalars are not read as structures
+            throw new JsonException("Internal Error");
+        }
+        return (JsonStructure) value;
+    }
+
+    @Override
+    public JsonObject readObject() {
+        final JsonStructure structure = read();
+        if (structure.getValueType() != JsonValue.ValueType.OBJECT) {
+            throw new JsonParsingException("Cannot read JSON object, found JSON array", parser.getLocation());
+        }
+        return structure.asJsonObject();
+    }
+
+    @Override
+    public JsonArray readArray() {
+        final JsonStructure structure = read();
+        if (structure.getValueType() != JsonValue.ValueType.ARRAY) {
+            throw new JsonParsingException("Cannot read JSON array, found JSON object", parser.getLocation());
+        }
+        return structure.asJsonArray();
+    }
+
+    @Override
+    public JsonValue readValue() {
+        if (readDone) {
+            throw new IllegalStateException("read/readObject/readArray/readValue/close method is already called");
+        }
+        readDone = true;
+        if (!parser.hasNext()) {
+            throw new JsonException("Internal Error");
+        }
+        try {
+            final JsonParser.Event event = parser.next();
+            final JsonValue value;
+            if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY) {
+                value = structure(event);
+            }
+            else {
+                value = parser.getValue();
+            }
+            return value;
+        }
+        catch (final IllegalStateException e) {
+            throw new JsonParsingException(e.getMessage(), e, parser.getLocation());
+        }
+    }
+
+    private JsonStructure structure(final JsonParser.Event start) {
+        final Deque<StructureBuilder> open = new ArrayDeque<>();
+        StructureBuilder current = new StructureBuilder(start == JsonParser.Event.START_OBJECT);
+        JsonStructure result = null;
+        while (result == null) {
+            final JsonParser.Event event = parser.next();
+            switch (event) {
+                case KEY_NAME:
+                    current.key(keyDictionary.intern(parser.getString()));
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    open.push(current);
+                    current = new StructureBuilder(event == JsonParser.Event.START_OBJECT);
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    final JsonStructure built = current.build();
+                    if (open.isEmpty()) {
+                        result = built;
+                    }
+                    else {
+                        current = open.pop();
+                        current.value(built);
+                    }
+                    break;
+                default:
+                    current.value(parser.getValue());
+                    break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        readDone = true;
+        parser.close();
+    }
+
+    private static final class StructureBuilder {
+
+        private final boolean isObject;
+        private final List<String> keys;
+        private final List<JsonValue> values;
+        // created when the object grows past linear search
+        private Map<String, Integer> positions;
+        private String pendingKey;
+
+        private StructureBuilder(final boolean isObject) {
+            this.isObject = isObject;
+            this.keys = new ArrayList<>();
+            this.values = new ArrayList<>();
+            this.positions = null;
+            this.pendingKey = null;
+        }
+
+        private void key(final String key) {
+            pendingKey = key;
+        }
+
+        private void value(final JsonValue value) {
+            if (isObject) {
+                // duplicate keys keep their first position and the last value, like LinkedHashMap
+                final int existing = position(pendingKey);
+                if (existing < 0) {
+                    keys.add(pendingKey);
+                    values.add(value);
+                }
+                else {
+                    values.set(existing, value);
+                }
+            }
+            else {
+                values.add(value);
+            }
+        }
+
+        private int position(final String key) {
+            final int position;
+            if (keys.size() < CompactJsonObject.maxLinearSearch) {
+                position = keys.indexOf(key);
+            }
+            else {
+                // large objects are indexed once to avoid quadratic duplicate checks
+                if (positions == null) {
+                    positions = new HashMap<>();
+                    for (int i = 0; i < keys.size(); i++) {
+                        positions.put(keys.get(i), i);
+                    }
+                }
+                position = positions.getOrDefault(key, -1);
+                if (position < 0) {
+                    positions.put(key, keys.size());
+                }
+            }
+            return position;
+        }
+
+        private JsonStructure build() {
+            final JsonStructure structure;
+            if (isObject) {
+                structure = new CompactJsonObject(keys.toArray(new String[0]), values.toArray(new JsonValue[0]));
+            }
+            else {
+                structure = new CompactJsonArray(values.toArray(new JsonValue[0]));
+            }
+            return structure;
+        }
+    }
+}
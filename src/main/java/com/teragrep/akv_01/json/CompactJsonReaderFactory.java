@@ -0,0 +1,119 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import jakarta.json.Json;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.stream.JsonParserFactory;
+import org.eclipse.parsson.api.BufferPool;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * JsonReaderFactory whose readers produce compact immutable JSON trees. Objects hold their members in parallel arrays
+ * instead of Parsson's LinkedHashMap, and keys are interned through a {@link KeyDictionary}, which considerably reduces
+ * the retained heap of parsed events with many small records. The trees implement the jakarta.json interfaces and are
+ * equal to the trees Parsson builds from the same document. Can be given to
+ * {@link com.teragrep.akv_01.event.ParsedEventListFactory} and {@link com.teragrep.akv_01.event.UnparsedEventImpl}
+ * through their readerFactory constructors. Factories created without a dictionary share one default dictionary.
+ */
+public final class CompactJsonReaderFactory implements JsonReaderFactory {
+
+    private static final KeyDictionary defaultKeyDictionary = new KeyDictionary();
+
+    private final JsonParserFactory parserFactory;
+    private final KeyDictionary keyDictionary;
+
+    public CompactJsonReaderFactory() {
+        this(new ThreadLocalBufferPool());
+    }
+
+    public CompactJsonReaderFactory(final ThreadLocalBufferPool bufferPool) {
+        this(bufferPool, defaultKeyDictionary);
+    }
+
+    public CompactJsonReaderFactory(final ThreadLocalBufferPool bufferPool, final KeyDictionary keyDictionary) {
+        this(Json.createParserFactory(Collections.singletonMap(BufferPool.class.getName(), bufferPool)), keyDictionary);
+    }
+
+    public CompactJsonReaderFactory(final JsonParserFactory parserFactory) {
+        this(parserFactory, defaultKeyDictionary);
+    }
+
+    public CompactJsonReaderFactory(final JsonParserFactory parserFactory, final KeyDictionary keyDictionary) {
+        this.parserFactory = parserFactory;
+        this.keyDictionary = keyDictionary;
+    }
+
+    public KeyDictionary keyDictionary() {
+        return keyDictionary;
+    }
+
+    @Override
+    public JsonReader createReader(final Reader reader) {
+        return new CompactJsonReader(parserFactory.createParser(reader), keyDictionary);
+    }
+
+    @Override
+    public JsonReader createReader(final InputStream in) {
+        return new CompactJsonReader(parserFactory.createParser(in), keyDictionary);
+    }
+
+    @Override
+    public JsonReader createReader(final InputStream in, final Charset charset) {
+        return new CompactJsonReader(parserFactory.createParser(in, charset), keyDictionary);
+    }
+
+    @Override
+    public Map<String, ?> getConfigInUse() {
+        return parserFactory.getConfigInUse();
+    }
+}
@@ -45,8 +45,8 @@
  */
 package com.teragrep.akv_01.json;
 
-import jakarta.json.Json;
 import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
 import jakarta.json.JsonStructure;
 
 import java.io.File;
@@ -61,19 +61,27 @@ import java.util.Objects;
  */
 public final class JsonFile {
 
+    private static final JsonReaderFactory defaultReaderFactory = new PooledJsonReaderFactory();
+
     private final File file;
+    private final JsonReaderFactory readerFactory;
 
     public JsonFile(final String path) {
         this(new File(path));
     }
 
     public JsonFile(final File file) {
+        this(file, defaultReaderFactory);
+    }
+
+    public JsonFile(final File file, final JsonReaderFactory readerFactory) {
         this.file = file;
+        this.readerFactory = readerFactory;
     }
 
     public JsonStructure asJsonStructure() throws IOException {
         final JsonStructure jsonStructure;
-        try (final JsonReader jsonReader = Json.createReader(new FileReader(file, StandardCharsets.UTF_8))) {
+        try (final JsonReader jsonReader = readerFactory.createReader(new FileReader(file, StandardCharsets.UTF_8))) {
             jsonStructure = jsonReader.read();
         }
         return jsonStructure;
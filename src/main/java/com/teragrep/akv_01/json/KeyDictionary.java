@@ -0,0 +1,179 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded dictionary of JSON object keys shared by all readers and threads, so that the few keys diagnostic records
+ * repeat are held once instead of once per parsed object. Entries are kept in a fixed table of two-way sets selected by
+ * the hash of the key. A new key replaces the older entry of its set when the set is full, so the dictionary never
+ * holds more than its capacity however many distinct keys the payloads contain, and keys longer than the maximum key
+ * length are not stored at all. The parser has already allocated the key when it is interned, so the dictionary reduces
+ * the retained heap of parsed trees, not the allocations of parsing. Lookups and insertions take no locks, concurrent
+ * insertions into the same set may lose an entry, which only costs a later miss.
+ */
+public final class KeyDictionary {
+
+    // 1024 entries, well above the keys of azure diagnostic records
+    private static final int defaultSets = 512;
+    private static final int defaultMaxKeyLength = 64;
+    private static final int ways = 2;
+    // folds the high bits of the hash into the set index
+    private static final int hashSpreadShift = 16;
+
+    private final AtomicReferenceArray<String> entries;
+    private final int setMask;
+    private final int maxKeyLength;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    public KeyDictionary() {
+        this(defaultSets, defaultMaxKeyLength);
+    }
+
+    public KeyDictionary(final int sets, final int maxKeyLength) {
+        if (sets <= 0 || Integer.bitCount(sets) != 1) {
+            throw new IllegalArgumentException("Sets must be a positive power of two, was <" + sets + ">");
+        }
+        this.entries = new AtomicReferenceArray<>(sets * ways);
+        this.setMask = sets - 1;
+        this.maxKeyLength = maxKeyLength;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * @param key key read from a JSON document
+     * @return the dictionary's instance equal to the key, or the key itself if the dictionary did not hold it
+     */
+    public String intern(final String key) {
+        final String interned;
+        if (key.length() > maxKeyLength) {
+            // too long to be stored
+            misses.increment();
+            interned = key;
+        }
+        else {
+            interned = internInSet(key);
+        }
+        return interned;
+    }
+
+    private String internInSet(final String key) {
+        final int hash = key.hashCode();
+        final int first = ((hash ^ hash >>> hashSpreadShift) & setMask) * ways;
+        final String newer = entries.get(first);
+        final String older = entries.get(first + 1);
+        final String interned;
+        if (key.equals(newer)) {
+            hits.increment();
+            interned = newer;
+        }
+        else if (key.equals(older)) {
+            hits.increment();
+            interned = older;
+        }
+        else {
+            misses.increment();
+            if (older != null) {
+                evictions.increment();
+            }
+            // the newer entry ages, the older one is evicted
+            entries.set(first + 1, newer);
+            entries.set(first, key);
+            interned = key;
+        }
+        return interned;
+    }
+
+    /**
+     * @return maximum number of keys the dictionary holds
+     */
+    public int capacity() {
+        return entries.length();
+    }
+
+    /**
+     * @return number of keys found in the dictionary
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of keys not found in the dictionary, including keys too long to be stored
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of keys dropped from the dictionary to make room for new ones
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return share of keys found in the dictionary, 0 if no keys have been interned
+     */
+    public double hitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        final double hitRate;
+        if (total == 0) {
+            hitRate = 0;
+        }
+        else {
+            hitRate = (double) hitCount / total;
+        }
+        return hitRate;
+    }
+}
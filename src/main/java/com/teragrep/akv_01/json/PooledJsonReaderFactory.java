@@ -0,0 +1,105 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import jakarta.json.Json;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import org.eclipse.parsson.api.BufferPool;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * JsonReaderFactory whose readers take their parse buffers from a {@link ThreadLocalBufferPool}. The pool is handed to
+ * Parsson through its {@link BufferPool} configuration property. The hit and miss counters of the pool are available
+ * through {@link #bufferPool()}.
+ */
+public final class PooledJsonReaderFactory implements JsonReaderFactory {
+
+    private final ThreadLocalBufferPool bufferPool;
+    private final JsonReaderFactory readerFactory;
+
+    public PooledJsonReaderFactory() {
+        this(new ThreadLocalBufferPool());
+    }
+
+    public PooledJsonReaderFactory(final ThreadLocalBufferPool bufferPool) {
+        this(bufferPool, Json.createReaderFactory(Collections.singletonMap(BufferPool.class.getName(), bufferPool)));
+    }
+
+    private PooledJsonReaderFactory(final ThreadLocalBufferPool bufferPool, final JsonReaderFactory readerFactory) {
+        this.bufferPool = bufferPool;
+        this.readerFactory = readerFactory;
+    }
+
+    @Override
+    public JsonReader createReader(final Reader reader) {
+        return readerFactory.createReader(reader);
+    }
+
+    @Override
+    public JsonReader createReader(final InputStream in) {
+        return readerFactory.createReader(in);
+    }
+
+    @Override
+    public JsonReader createReader(final InputStream in, final Charset charset) {
+        return readerFactory.createReader(in, charset);
+    }
+
+    @Override
+    public Map<String, ?> getConfigInUse() {
+        return readerFactory.getConfigInUse();
+    }
+
+    public ThreadLocalBufferPool bufferPool() {
+        return bufferPool;
+    }
+}
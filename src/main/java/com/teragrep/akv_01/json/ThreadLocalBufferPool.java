@@ -0,0 +1,120 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import org.eclipse.parsson.api.BufferPool;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parsson {@link BufferPool} keeping the recycled parse buffers of each thread to itself, so that taking and recycling
+ * a buffer needs neither locking nor allocation. Parsson's default pool allocates a queue node for every recycled
+ * buffer and loses all buffers when its weakly referenced queue is collected. Buffers are kept per thread and not
+ * shared, so threads that parse only once, such as short-lived virtual threads, see only misses. Buffers the parser has
+ * grown beyond the buffer size are not kept.
+ */
+public final class ThreadLocalBufferPool implements BufferPool {
+
+    // same buffer size as parsson uses, one buffer per nested reader
+    private static final int defaultBufferSize = 4096;
+    private static final int defaultMaxBuffersPerThread = 4;
+
+    private final int bufferSize;
+    private final int maxBuffersPerThread;
+    private final ThreadLocal<Deque<char[]>> buffers;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public ThreadLocalBufferPool() {
+        this(defaultBufferSize, defaultMaxBuffersPerThread);
+    }
+
+    public ThreadLocalBufferPool(final int bufferSize, final int maxBuffersPerThread) {
+        this.bufferSize = bufferSize;
+        this.maxBuffersPerThread = maxBuffersPerThread;
+        this.buffers = ThreadLocal.withInitial(ArrayDeque::new);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    @Override
+    public char[] take() {
+        char[] buffer = buffers.get().pollFirst();
+        if (buffer == null) {
+            misses.increment();
+            buffer = new char[bufferSize];
+        }
+        else {
+            hits.increment();
+        }
+        return buffer;
+    }
+
+    @Override
+    public void recycle(final char[] buffer) {
+        final Deque<char[]> threadBuffers = buffers.get();
+        // buffers grown by a large token are dropped, the pool would otherwise pin them to the thread
+        if (buffer.length <= bufferSize && threadBuffers.size() < maxBuffersPerThread) {
+            threadBuffers.offerFirst(buffer);
+        }
+    }
+
+    /**
+     * @return number of buffers taken from the pool
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of buffers allocated because the pool of the thread was empty
+     */
+    public long misses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.plugin.metrics.DispatchMetrics;
+import com.teragrep.akv_01.plugin.metrics.NoOpDispatchMetrics;
+import com.teragrep.rlo_14.SyslogMessage;
+import jakarta.json.JsonException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Runs {@link Plugin#syslogMessage(ParsedEvent)} calls on an executor, for example one using virtual threads on
+ * runtimes that provide them, so that slow plugins do not block the thread receiving the events.
+ * <ul>
+ * <li>At most {@code maxConcurrencyPerResourceId} calls of the same resourceId run at a time, further calls wait in a
+ * queue without blocking any thread.</li>
+ * <li>Events whose plugin fails with {@link PluginException}, or does not complete within the time limit of the
+ * resourceId, are processed with the exception plugin. The time limit covers both waiting for the concurrency limit and
+ * running the plugin. A plugin call over its time limit is abandoned, but keeps its concurrency slot until it
+ * returns.</li>
+ * <li>The messages of a batch are in the order of its events, and the stages returned for the same partition complete
+ * in the order in which the batches were submitted.</li>
+ * <li>Measurements are reported to a {@link DispatchMetrics}, which are collected on the executor threads.</li>
+ * </ul>
+ */
+public final class AsyncDispatcher {
+
+    private final PluginRegistry pluginRegistry;
+    private final Executor executor;
+    private final KeyedConcurrencyLimit concurrencyLimit;
+    private final PluginTimeouts timeouts;
+    private final DispatchMetrics metrics;
+    private final ConcurrentMap<String, CompletableFuture<List<SyslogMessage>>> partitionTails;
+
+    /**
+     * Main constructor.
+     *
+     * @param pluginRegistry              plugins to use
+     * @param executor                    executor to run the plugins on
+     * @param maxConcurrencyPerResourceId maximum number of concurrently running plugin calls per resourceId
+     */
+    public AsyncDispatcher(
+            final PluginRegistry pluginRegistry,
+            final Executor executor,
+            final int maxConcurrencyPerResourceId
+    ) {
+        this(
+                pluginRegistry,
+                executor,
+                maxConcurrencyPerResourceId,
+                new PluginTimeouts(Collections.emptyMap(), Duration.ZERO)
+        );
+    }
+
+    /**
+     * Main constructor.
+     *
+     * @param pluginRegistry              plugins to use
+     * @param executor                    executor to run the plugins on
+     * @param maxConcurrencyPerResourceId maximum number of concurrently running plugin calls per resourceId
+     * @param timeouts                    time limits of the plugin calls
+     */
+    public AsyncDispatcher(
+            final PluginRegistry pluginRegistry,
+            final Executor executor,
+            final int maxConcurrencyPerResourceId,
+            final PluginTimeouts timeouts
+    ) {
+        this(pluginRegistry, executor, maxConcurrencyPerResourceId, timeouts, new NoOpDispatchMetrics());
+    }
+
+    /**
+     * Main constructor.
+     *
+     * @param pluginRegistry              plugins to use
+     * @param executor                    executor to run the plugins on
+     * @param maxConcurrencyPerResourceId maximum number of concurrently running plugin calls per resourceId
+     * @param timeouts                    time limits of the plugin calls
+     * @param metrics                     receives the measurements of the dispatching
+     */
+    public AsyncDispatcher(
+            final PluginRegistry pluginRegistry,
+            final Executor executor,
+            final int maxConcurrencyPerResourceId,
+            final PluginTimeouts timeouts,
+            final DispatchMetrics metrics
+    ) {
+        if (maxConcurrencyPerResourceId < 1) {
+            throw new IllegalArgumentException(
+                    "Max concurrency per resourceId must be positive, got <" + maxConcurrencyPerResourceId + ">"
+            );
+        }
+        this.pluginRegistry = pluginRegistry;
+        this.executor = executor;
+        this.concurrencyLimit = new KeyedConcurrencyLimit(executor, maxConcurrencyPerResourceId);
+        this.timeouts = timeouts;
+        this.metrics = metrics;
+        this.partitionTails = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Processes the events of a single partition's batch.
+     *
+     * @param partitionId  partition the events were received from
+     * @param parsedEvents events of the batch
+     * @return stage completing with the messages of all the events, or exceptionally if an event can not be parsed or
+     *         routed or the exception plugin fails
+     */
+    public CompletionStage<List<SyslogMessage>> syslogMessages(
+            final String partitionId,
+            final List<ParsedEvent> parsedEvents
+    ) {
+        final List<CompletableFuture<List<SyslogMessage>>> eventFutures = new ArrayList<>(parsedEvents.size());
+        for (final ParsedEvent parsedEvent : parsedEvents) {
+            eventFutures.add(syslogMessage(parsedEvent));
+        }
+        final CompletableFuture<List<SyslogMessage>> batch = CompletableFuture
+                .allOf(eventFutures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    final List<SyslogMessage> syslogMessages = new ArrayList<>(eventFutures.size());
+                    for (final CompletableFuture<List<SyslogMessage>> eventFuture : eventFutures) {
+                        syslogMessages.addAll(eventFuture.join());
+                    }
+                    return syslogMessages;
+                });
+
+        final AtomicReference<CompletableFuture<List<SyslogMessage>>> ordered = new AtomicReference<>();
+        partitionTails.compute(partitionId, (key, previous) -> {
+            if (previous == null) {
+                ordered.set(batch);
+            }
+            else {
+                // complete only after the previous batch of the partition, whatever its outcome
+                ordered.set(previous.handle((value, failure) -> batch).thenCompose(Function.identity()));
+            }
+            return ordered.get();
+        });
+        final CompletableFuture<List<SyslogMessage>> tail = ordered.get();
+        tail.whenComplete((value, failure) -> partitionTails.remove(partitionId, tail));
+        return tail;
+    }
+
+    /**
+     * Processes a single event.
+     *
+     * @param parsedEvent event to process
+     * @return stage completing with the messages of the event, or exceptionally if the event can not be parsed or
+     *         routed or the exception plugin fails
+     */
+    public CompletableFuture<List<SyslogMessage>> syslogMessage(final ParsedEvent parsedEvent) {
+        CompletableFuture<List<SyslogMessage>> result;
+        try {
+            result = dispatched(parsedEvent);
+        }
+        catch (final JsonException | UnsupportedOperationException e) {
+            // reported like plugin failures, so that callers handle failures in one place
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result;
+    }
+
+    private CompletableFuture<List<SyslogMessage>> dispatched(final ParsedEvent parsedEvent) {
+        final long start = System.nanoTime();
+        // parses lazily parsed events
+        parsedEvent.isJsonStructure();
+        final long parsed = System.nanoTime();
+        final String resourceId = new RoutedResourceId(parsedEvent).value();
+        // the event uses the plugins of one registry, even if the registry is reloaded meanwhile
+        final PluginRegistry registry = pluginRegistry.current();
+        final Plugin plugin = registry.plugin(resourceId);
+        final long routed = System.nanoTime();
+
+        final String pluginClassName = plugin.getClass().getName();
+        final MeasuredResourceId measuredResourceId = new MeasuredResourceId(resourceId, plugin, registry);
+        final String measuredId = measuredResourceId.value();
+        metrics.parse(measuredId, pluginClassName, parsed - start);
+        metrics.route(measuredId, pluginClassName, routed - parsed);
+        if (measuredResourceId.isDefault()) {
+            metrics.defaultFallback(measuredId, pluginClassName);
+        }
+
+        final CompletableFuture<List<SyslogMessage>> pluginCall = withTimeout(
+                concurrencyLimit.submit(resourceId, () -> measuredCall(measuredId, plugin, parsedEvent)), timeouts.timeout(resourceId)
+        );
+        return pluginCall.handle((syslogMessages, failure) -> {
+            final CompletableFuture<List<SyslogMessage>> result;
+            if (failure instanceof PluginException || failure instanceof TimeoutException) {
+                metrics.exceptionFallback(measuredId, pluginClassName);
+                result = withTimeout(
+                        CompletableFuture.supplyAsync(() -> call(registry.exceptionPlugin(), parsedEvent), executor), timeouts.defaultTimeout()
+                );
+            }
+            else if (failure != null) {
+                result = CompletableFuture.failedFuture(failure);
+            }
+            else {
+                result = CompletableFuture.completedFuture(syslogMessages);
+            }
+            return result;
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<List<SyslogMessage>> withTimeout(
+            final CompletableFuture<List<SyslogMessage>> future,
+            final Duration timeout
+    ) {
+        final CompletableFuture<List<SyslogMessage>> result;
+        if (timeout.isZero() || timeout.isNegative()) {
+            result = future;
+        }
+        else {
+            result = future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    private List<SyslogMessage> measuredCall(
+            final String resourceId,
+            final Plugin plugin,
+            final ParsedEvent parsedEvent
+    ) {
+        final String pluginClassName = plugin.getClass().getName();
+        final long start = System.nanoTime();
+        try {
+            return plugin.syslogMessage(parsedEvent);
+        }
+        catch (final PluginException e) {
+            metrics.pluginException(resourceId, pluginClassName);
+            throw new CompletionException(e);
+        }
+        finally {
+            metrics.syslogMessage(resourceId, pluginClassName, 1, System.nanoTime() - start);
+        }
+    }
+
+    private List<SyslogMessage> call(final Plugin plugin, final ParsedEvent parsedEvent) {
+        try {
+            return plugin.syslogMessage(parsedEvent);
+        }
+        catch (final PluginException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
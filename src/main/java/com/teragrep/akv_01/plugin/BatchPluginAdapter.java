@@ -0,0 +1,93 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.rlo_14.SyslogMessage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Provides {@link BatchPlugin} for any {@link Plugin}. Plugins that implement {@link BatchPlugin} themselves are used
+ * as is, others are called once per event.
+ */
+public final class BatchPluginAdapter implements BatchPlugin {
+
+    private final Plugin plugin;
+
+    public BatchPluginAdapter(final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void syslogMessages(final List<ParsedEvent> parsedEvents, final Collection<SyslogMessage> sink)
+            throws PluginException {
+        if (plugin instanceof BatchPlugin) {
+            ((BatchPlugin) plugin).syslogMessages(parsedEvents, sink);
+        }
+        else {
+            for (final ParsedEvent parsedEvent : parsedEvents) {
+                sink.addAll(plugin.syslogMessage(parsedEvent));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BatchPluginAdapter that = (BatchPluginAdapter) o;
+        return Objects.equals(plugin, that.plugin);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(plugin);
+    }
+}
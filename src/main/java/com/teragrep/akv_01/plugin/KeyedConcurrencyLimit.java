@@ -0,0 +1,159 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on an executor with at most {@code limit} tasks of the same key running at a time. Tasks over the limit
+ * are queued without blocking the submitting thread and started in submission order as running tasks of the key
+ * complete. A queued task whose result has already been completed, for example by a timeout, is not run. A task the
+ * executor rejects completes exceptionally with the {@link RejectedExecutionException} and frees its slot. Keys without
+ * running or queued tasks are not retained.
+ */
+final class KeyedConcurrencyLimit {
+
+    private final Executor executor;
+    private final int limit;
+    private final ConcurrentMap<String, Slot> slots;
+
+    KeyedConcurrencyLimit(final Executor executor, final int limit) {
+        this.executor = executor;
+        this.limit = limit;
+        this.slots = new ConcurrentHashMap<>();
+    }
+
+    <T> CompletableFuture<T> submit(final String key, final Supplier<T> task) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // true if the task took over the slot, false if the slot has to be released again
+        final BooleanSupplier start = () -> {
+            boolean started = false;
+            // completed while queued, for example by a timeout
+            if (!result.isDone()) {
+                try {
+                    CompletableFuture.supplyAsync(task, executor).whenComplete((value, failure) -> {
+                        release(key);
+                        if (failure == null) {
+                            result.complete(value);
+                        }
+                        else if (failure instanceof CompletionException && failure.getCause() != null) {
+                            result.completeExceptionally(failure.getCause());
+                        }
+                        else {
+                            result.completeExceptionally(failure);
+                        }
+                    });
+                    started = true;
+                }
+                catch (final RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+            return started;
+        };
+
+        final boolean[] startNow = new boolean[1];
+        slots.compute(key, (k, existing) -> {
+            final Slot slot = existing == null ? new Slot() : existing;
+            if (slot.running < limit) {
+                slot.running++;
+                startNow[0] = true;
+            }
+            else {
+                slot.pending.add(start);
+            }
+            return slot;
+        });
+        if (startNow[0] && !start.getAsBoolean()) {
+            release(key);
+        }
+        return result;
+    }
+
+    /**
+     * Hands the slot of a finished task to the next queued task of the key. Queued tasks that do not start, because
+     * they were completed while queued or the executor rejected them, hand it on in the same loop.
+     */
+    private void release(final String key) {
+        BooleanSupplier next = next(key);
+        while (next != null && !next.getAsBoolean()) {
+            next = next(key);
+        }
+    }
+
+    /**
+     * @return the next queued task of the key, which takes over the slot, or null if the slot was freed
+     */
+    private BooleanSupplier next(final String key) {
+        final BooleanSupplier[] next = new BooleanSupplier[1];
+        slots.computeIfPresent(key, (k, slot) -> {
+            next[0] = slot.pending.poll();
+            if (next[0] == null) {
+                slot.running--;
+            }
+            return slot.running == 0 ? null : slot;
+        });
+        return next[0];
+    }
+
+    /**
+     * Number of running tasks and queued tasks of a key, only accessed inside {@link ConcurrentMap#compute}.
+     */
+    private static final class Slot {
+
+        private int running;
+        private final Queue<BooleanSupplier> pending = new ArrayDeque<>();
+    }
+}
@@ -47,5 +47,13 @@ package com.teragrep.akv_01.plugin;
 
 public interface PluginFactory {
 
+    /**
+     * A rejected config is reported with {@link IllegalArgumentException}, {@link IllegalStateException} or
+     * {@link java.io.UncheckedIOException}, which {@link PluginRegistryFactory} turns into a {@link PluginException}.
+     * Other exceptions are not caught.
+     *
+     * @param config pluginFactoryConfig of the resourceId, empty for the default and exception plugins
+     * @return plugin using the config
+     */
     public abstract Plugin plugin(final String config);
 }
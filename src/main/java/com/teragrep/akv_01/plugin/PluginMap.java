@@ -52,10 +52,14 @@ import jakarta.json.JsonStructure;
 import jakarta.json.JsonString;
 import jakarta.json.JsonArray;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Provides a map of ResourceId to plugin className.
@@ -158,6 +162,119 @@ public final class PluginMap {
         return Collections.unmodifiableMap(map);
     }
 
+    /**
+     * Validates the whole configuration in one pass and returns its contents as a {@link PluginMapSnapshot}. Unlike the
+     * other methods, all validation errors are collected and reported together in a single {@link JsonException}.
+     *
+     * @return validated contents of the configuration
+     */
+    public PluginMapSnapshot snapshot() {
+        final List<String> errors = new ArrayList<>();
+        final Map<String, PluginFactoryConfig> map = new HashMap<>();
+        // ids are tracked apart from the map so that duplicates of invalid entries are reported too
+        final Set<String> seenIds = new HashSet<>();
+        String defaultClassName = "";
+        String exceptionClassName = "";
+
+        if (!hasType(errors, "in top-level structure", json, JsonValue.ValueType.OBJECT)) {
+            throw new JsonException(String.join("; ", errors));
+        }
+        final JsonObject mainObject = json.asJsonObject();
+        if (mainObject.isEmpty()) {
+            throw new JsonException("Expected top-level structure to be a non-empty object");
+        }
+
+        final JsonValue defaultClass = mainObject.get("defaultPluginFactoryClass");
+        if (hasType(errors, "defaultPluginFactoryClass", defaultClass, JsonValue.ValueType.STRING)) {
+            defaultClassName = ((JsonString) defaultClass).getString();
+        }
+        final JsonValue exceptionClass = mainObject.get("exceptionPluginFactoryClass");
+        if (hasType(errors, "exceptionPluginFactoryClass", exceptionClass, JsonValue.ValueType.STRING)) {
+            exceptionClassName = ((JsonString) exceptionClass).getString();
+        }
+
+        final JsonValue resourceIds = mainObject.get("resourceIds");
+        if (hasType(errors, "resourceIds", resourceIds, JsonValue.ValueType.ARRAY)) {
+            final JsonArray resourceIdPlugins = resourceIds.asJsonArray();
+            for (int i = 0; i < resourceIdPlugins.size(); i++) {
+                final String item = "in resourceIds array item <" + i + ">";
+                final JsonValue jsonValue = resourceIdPlugins.get(i);
+                if (hasType(errors, item, jsonValue, JsonValue.ValueType.OBJECT)) {
+                    addResourceId(errors, seenIds, map, jsonValue.asJsonObject(), item);
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new JsonException(String.join("; ", errors));
+        }
+        return new PluginMapSnapshot(Collections.unmodifiableMap(map), defaultClassName, exceptionClassName);
+    }
+
+    /**
+     * Validates one item of the resourceIds array, adding its errors to {@code errors} and the item to {@code map} if
+     * it is valid.
+     */
+    private void addResourceId(
+            final List<String> errors,
+            final Set<String> seenIds,
+            final Map<String, PluginFactoryConfig> map,
+            final JsonObject pluginObject,
+            final String item
+    ) {
+        final JsonValue id = pluginObject.get("resourceId");
+        final JsonValue className = pluginObject.get("pluginFactoryClass");
+        final JsonValue config = pluginObject.get("pluginFactoryConfig");
+        final boolean validId = hasType(errors, "resourceId " + item, id, JsonValue.ValueType.STRING);
+        final boolean validClassName = hasType(
+                errors, "pluginFactoryClass " + item, className, JsonValue.ValueType.STRING
+        );
+        final boolean validConfig = hasType(errors, "pluginFactoryConfig " + item, config, JsonValue.ValueType.STRING);
+        if (validId && ((JsonString) id).getString().isEmpty()) {
+            errors.add("ResourceId is empty " + item);
+        }
+        else if (validId && !seenIds.add(((JsonString) id).getString())) {
+            errors.add("Duplicate resourceId: <[" + id + "]> " + item);
+        }
+        else if (validId && validClassName && validConfig) {
+            map
+                    .put(
+                            ((JsonString) id).getString(),
+                            new PluginFactoryConfigImpl(
+                                    ((JsonString) className).getString(),
+                                    ((JsonString) config).getString()
+                            )
+                    );
+        }
+        if (validClassName && ((JsonString) className).getString().isEmpty()) {
+            errors.add("PluginFactoryClass is empty " + item);
+        }
+    }
+
+    /**
+     * Adds an error to {@code errors} if given {@link JsonValue} is {@code null} or not of the expected
+     * {@link JsonValue.ValueType}
+     *
+     * @return true if the value is of the expected type
+     */
+    private boolean hasType(
+            final List<String> errors,
+            final String msg,
+            final JsonValue value,
+            final JsonValue.ValueType type
+    ) {
+        boolean hasType = true;
+        if (value == null) {
+            errors.add("Expected <" + type + "> but got no value " + msg);
+            hasType = false;
+        }
+        else if (!value.getValueType().equals(type)) {
+            errors.add("Expected <" + type + "> but got <[" + value.getValueType() + "]> " + msg);
+            hasType = false;
+        }
+        return hasType;
+    }
+
     /**
      * Returns the default pluginFactory class name.
      * 
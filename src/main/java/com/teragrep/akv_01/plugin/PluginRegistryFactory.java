@@ -0,0 +1,133 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resolves every resourceId of a {@link PluginMap}, as well as the default and exception plugins, to a {@link Plugin}.
+ * Each pluginFactory class is initialized once and each plugin is created once with the configured config path. The
+ * default and exception plugins are created with an empty config path.
+ */
+public final class PluginRegistryFactory {
+
+    private final PluginMap pluginMap;
+
+    public PluginRegistryFactory(final PluginMap pluginMap) {
+        this.pluginMap = pluginMap;
+    }
+
+    public PluginRegistry pluginRegistry() throws PluginException {
+        final PluginMapSnapshot snapshot = pluginMap.snapshot();
+        final Map<String, PluginFactory> pluginFactories = new HashMap<>();
+        final Map<String, Plugin> plugins = new HashMap<>();
+        for (final Map.Entry<String, PluginFactoryConfig> entry : snapshot.asUnmodifiableMap().entrySet()) {
+            final PluginFactoryConfig config = entry.getValue();
+            final String className = config.pluginFactoryClassName();
+            plugins
+                    .put(entry.getKey(), plugin(pluginFactory(pluginFactories, className), className, config.configPath()));
+        }
+
+        final String defaultClassName = snapshot.defaultPluginFactoryClassName();
+        final Plugin defaultPlugin = plugin(pluginFactory(pluginFactories, defaultClassName), defaultClassName, "");
+        final String exceptionClassName = snapshot.exceptionPluginFactoryClassName();
+        final Plugin exceptionPlugin = plugin(
+                pluginFactory(pluginFactories, exceptionClassName), exceptionClassName, ""
+        );
+        return new PluginRegistryImpl(Collections.unmodifiableMap(plugins), defaultPlugin, exceptionPlugin);
+    }
+
+    private PluginFactory pluginFactory(final Map<String, PluginFactory> pluginFactories, final String className)
+            throws PluginException {
+        PluginFactory pluginFactory = pluginFactories.get(className);
+        if (pluginFactory == null) {
+            try {
+                pluginFactory = new PluginFactoryInitialization(className).pluginFactory();
+            }
+            catch (
+                final ClassNotFoundException | InvocationTargetException | NoSuchMethodException
+                        | InstantiationException | IllegalAccessException | ClassCastException e
+            ) {
+                throw new PluginException("Could not initialize pluginFactory <" + className + ">", e);
+            }
+            pluginFactories.put(className, pluginFactory);
+        }
+        return pluginFactory;
+    }
+
+    private Plugin plugin(final PluginFactory pluginFactory, final String className, final String configPath)
+            throws PluginException {
+        try {
+            return pluginFactory.plugin(configPath);
+        }
+        catch (final IllegalArgumentException | IllegalStateException | UncheckedIOException e) {
+            // factories reject their config with unchecked exceptions, the interface declares none
+            throw new PluginException(
+                    "Could not create plugin with pluginFactory <" + className + "> and config <" + configPath + ">",
+                    e
+            );
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PluginRegistryFactory that = (PluginRegistryFactory) o;
+        return Objects.equals(pluginMap, that.pluginMap);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(pluginMap);
+    }
+}
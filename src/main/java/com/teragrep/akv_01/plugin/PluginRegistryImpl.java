@@ -0,0 +1,103 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import java.util.Map;
+import java.util.Objects;
+
+public final class PluginRegistryImpl implements PluginRegistry {
+
+    private final Map<String, Plugin> plugins;
+    private final Plugin defaultPlugin;
+    private final Plugin exceptionPlugin;
+
+    /**
+     * Main constructor.
+     *
+     * @param plugins         unmodifiable map of resourceId to plugin
+     * @param defaultPlugin   plugin for resourceIds not present in the map
+     * @param exceptionPlugin plugin to use when processing with another plugin fails
+     */
+    public PluginRegistryImpl(
+            final Map<String, Plugin> plugins,
+            final Plugin defaultPlugin,
+            final Plugin exceptionPlugin
+    ) {
+        this.plugins = plugins;
+        this.defaultPlugin = defaultPlugin;
+        this.exceptionPlugin = exceptionPlugin;
+    }
+
+    @Override
+    public Plugin plugin(final String resourceId) {
+        return plugins.getOrDefault(resourceId, defaultPlugin);
+    }
+
+    @Override
+    public Plugin defaultPlugin() {
+        return defaultPlugin;
+    }
+
+    @Override
+    public Plugin exceptionPlugin() {
+        return exceptionPlugin;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PluginRegistryImpl that = (PluginRegistryImpl) o;
+        return Objects.equals(plugins, that.plugins) && Objects.equals(defaultPlugin, that.defaultPlugin)
+                && Objects.equals(exceptionPlugin, that.exceptionPlugin);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(plugins, defaultPlugin, exceptionPlugin);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Time limits for plugin calls by resourceId. A zero or negative duration means no limit.
+ */
+public final class PluginTimeouts {
+
+    private final Map<String, Duration> timeouts;
+    private final Duration defaultTimeout;
+
+    /**
+     * Main constructor.
+     *
+     * @param timeouts       time limits of resourceIds
+     * @param defaultTimeout time limit of resourceIds not present in the map, and of the exception plugin
+     */
+    public PluginTimeouts(final Map<String, Duration> timeouts, final Duration defaultTimeout) {
+        this.timeouts = timeouts;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration timeout(final String resourceId) {
+        return timeouts.getOrDefault(resourceId, defaultTimeout);
+    }
+
+    public Duration defaultTimeout() {
+        return defaultTimeout;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PluginTimeouts that = (PluginTimeouts) o;
+        return Objects.equals(timeouts, that.timeouts) && Objects.equals(defaultTimeout, that.defaultTimeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timeouts, defaultTimeout);
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.json.JsonFile;
+import jakarta.json.JsonException;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link PluginRegistry} that is rebuilt when the {@link PluginMap} configuration file or any of the
+ * pluginFactoryConfig files change. The configuration is validated with {@link PluginMap#snapshot()} and the new
+ * registry is swapped in atomically, lookups do not take a lock. A failed reload keeps the previous registry in use and
+ * is available from {@link #lastReloadFailure()}. Plugins already handed out are not affected by a reload, to process a
+ * whole batch with the same plugins, take the registry once with {@link #current()}.
+ * <p>
+ * The directories of the configuration files are watched for any change and a reload is done when the contents of a
+ * configuration file differ from the contents seen at the previous reload. Configuration files replaced through a
+ * symbolic link swap, such as Kubernetes ConfigMap mounts, are reloaded as well.
+ */
+public final class ReloadingPluginRegistry implements PluginRegistry, AutoCloseable {
+
+    private final Path pluginMapPath;
+    private final AtomicReference<PluginRegistry> current;
+    private final AtomicReference<Set<Path>> watchedFiles;
+    private final AtomicReference<PluginException> lastReloadFailure;
+    private final AtomicReference<WatchService> watchService;
+    private final AtomicReference<Map<Path, byte[]>> watchedContents;
+    private final Map<Path, WatchKey> watchKeys;
+
+    /**
+     * Main constructor. No configuration is loaded before {@link #start()} or {@link #reload()} is called.
+     *
+     * @param pluginMapPath path to the {@link PluginMap} JSON file
+     */
+    public ReloadingPluginRegistry(final Path pluginMapPath) {
+        this.pluginMapPath = pluginMapPath;
+        this.current = new AtomicReference<>(new PluginRegistryStub());
+        this.watchedFiles = new AtomicReference<>(Collections.emptySet());
+        this.lastReloadFailure = new AtomicReference<>();
+        this.watchService = new AtomicReference<>();
+        this.watchedContents = new AtomicReference<>(Collections.emptyMap());
+        this.watchKeys = new HashMap<>();
+    }
+
+    /**
+     * Loads the configuration and starts watching the configuration files for changes in a daemon thread.
+     *
+     * @throws PluginException if the initial configuration can not be loaded
+     * @throws IOException     if the files can not be watched
+     */
+    public void start() throws PluginException, IOException {
+        reload();
+        watchedContents.set(contents(watchedFiles.get()));
+        final WatchService service = pluginMapPath.getFileSystem().newWatchService();
+        if (!watchService.compareAndSet(null, service)) {
+            service.close();
+            throw new IllegalStateException("ReloadingPluginRegistry is already started");
+        }
+        register(service);
+        final Thread watcher = new Thread(() -> watch(service), "akv_01-plugin-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Reads and validates the configuration, creates the plugins and swaps the new registry in.
+     *
+     * @throws PluginException if the configuration is invalid or a plugin can not be created, the previous registry
+     *                         stays in use
+     */
+    public void reload() throws PluginException {
+        synchronized (watchedFiles) {
+            final PluginMap pluginMap;
+            final PluginMapSnapshot snapshot;
+            try {
+                pluginMap = new PluginMap(new JsonFile(pluginMapPath.toFile()).asJsonStructure());
+                snapshot = pluginMap.snapshot();
+            }
+            catch (final IOException | JsonException e) {
+                throw new PluginException("Could not load plugin configuration <" + pluginMapPath + ">", e);
+            }
+            final PluginRegistry registry = new PluginRegistryFactory(pluginMap).pluginRegistry();
+
+            final Set<Path> files = new HashSet<>();
+            files.add(pluginMapPath.toAbsolutePath().normalize());
+            for (final PluginFactoryConfig config : snapshot.asUnmodifiableMap().values()) {
+                if (!config.configPath().isEmpty()) {
+                    files.add(Paths.get(config.configPath()).toAbsolutePath().normalize());
+                }
+            }
+            watchedFiles.set(Collections.unmodifiableSet(files));
+            current.set(registry);
+        }
+    }
+
+    /**
+     * Registers the directories of the watched files that are not registered yet and cancels the keys of directories
+     * that no longer hold a watched file.
+     */
+    private void register(final WatchService service) throws IOException {
+        final Set<Path> directories = new HashSet<>();
+        for (final Path file : watchedFiles.get()) {
+            directories.add(file.getParent());
+        }
+        synchronized (watchKeys) {
+            final Iterator<Map.Entry<Path, WatchKey>> iterator = watchKeys.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Path, WatchKey> entry = iterator.next();
+                // a key is invalidated when its directory is deleted, register the directory again if it returns
+                if (!directories.contains(entry.getKey()) || !entry.getValue().isValid()) {
+                    entry.getValue().cancel();
+                    iterator.remove();
+                }
+            }
+            for (final Path directory : directories) {
+                if (!watchKeys.containsKey(directory)) {
+                    watchKeys
+                            .put(
+                                    directory,
+                                    directory
+                                            .register(
+                                                    service, StandardWatchEventKinds.ENTRY_CREATE,
+                                                    StandardWatchEventKinds.ENTRY_MODIFY,
+                                                    StandardWatchEventKinds.ENTRY_DELETE
+                                            )
+                            );
+                }
+            }
+        }
+    }
+
+    private void watch(final WatchService service) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                reloadWhileChanged(service);
+                final WatchKey key = service.take();
+                // the changed entry may be a symbolic link the configuration file resolves through, compare contents
+                key.pollEvents();
+                key.reset();
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (final ClosedWatchServiceException ignored) {
+            // closed, stop watching
+        }
+    }
+
+    /**
+     * Reloads until the contents of the watched files are the ones read before the latest reload. A file changed after
+     * the reload read it, but before its directory was registered, is reloaded in the next round.
+     */
+    private void reloadWhileChanged(final WatchService service) {
+        Map<Path, byte[]> contents = contents(watchedFiles.get());
+        while (!sameContents(contents, watchedContents.get())) {
+            watchedContents.set(contents);
+            reloadAndRegister(service);
+            contents = contents(watchedFiles.get());
+        }
+    }
+
+    private Map<Path, byte[]> contents(final Set<Path> files) {
+        final Map<Path, byte[]> contents = new HashMap<>();
+        for (final Path file : files) {
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file);
+            }
+            catch (final IOException e) {
+                // missing or unreadable, the reload reports it
+                content = null;
+            }
+            contents.put(file, content);
+        }
+        return contents;
+    }
+
+    private boolean sameContents(final Map<Path, byte[]> contents, final Map<Path, byte[]> previous) {
+        boolean same = contents.keySet().equals(previous.keySet());
+        if (same) {
+            for (final Map.Entry<Path, byte[]> entry : contents.entrySet()) {
+                if (!Arrays.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                    same = false;
+                    break;
+                }
+            }
+        }
+        return same;
+    }
+
+    private void reloadAndRegister(final WatchService service) {
+        try {
+            reload();
+            register(service);
+            lastReloadFailure.set(null);
+        }
+        catch (final PluginException e) {
+            lastReloadFailure.set(e);
+        }
+        catch (final IOException e) {
+            lastReloadFailure.set(new PluginException("Could not watch plugin configuration", e));
+        }
+    }
+
+    /**
+     * @return the registry currently in use
+     */
+    @Override
+    public PluginRegistry current() {
+        return current.get();
+    }
+
+    /**
+     * @return failure of the latest reload triggered by a file change, empty if it succeeded
+     */
+    public Optional<PluginException> lastReloadFailure() {
+        return Optional.ofNullable(lastReloadFailure.get());
+    }
+
+    @Override
+    public Plugin plugin(final String resourceId) {
+        return current.get().plugin(resourceId);
+    }
+
+    @Override
+    public Plugin defaultPlugin() {
+        return current.get().defaultPlugin();
+    }
+
+    @Override
+    public Plugin exceptionPlugin() {
+        return current.get().exceptionPlugin();
+    }
+
+    /**
+     * Stops watching the configuration files. The current registry stays usable.
+     */
+    @Override
+    public void close() throws IOException {
+        final WatchService service = watchService.getAndSet(null);
+        if (service != null) {
+            service.close();
+            synchronized (watchKeys) {
+                watchKeys.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.plugin.metrics.DispatchMetrics;
+import com.teragrep.akv_01.plugin.metrics.NoOpDispatchMetrics;
+import com.teragrep.rlo_14.SyslogMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Processes a batch of events with the plugins of a {@link PluginRegistry}. The events are grouped by resourceId,
+ * resourceIds without a configured plugin go to the default plugin. Plugins implementing {@link BatchPlugin} get each
+ * group as one call. If that call fails with {@link PluginException}, all events of the group are processed with the
+ * exception plugin, see {@link BatchPlugin} for the contract. Other plugins are called once per event, events whose
+ * call fails are processed with the exception plugin. Measurements are reported to a {@link DispatchMetrics}, with
+ * {@link NoOpDispatchMetrics} nothing is measured.
+ * <p>
+ * Messages are returned grouped: groups in the order of the first event of each resourceId, and within a group in the
+ * order of the events. A batch is processed with the plugins of {@link PluginRegistry#current()} at its start.
+ */
+public final class ResourceGroupedDispatcher {
+
+    private final PluginRegistry pluginRegistry;
+    private final DispatchMetrics metrics;
+
+    public ResourceGroupedDispatcher(final PluginRegistry pluginRegistry) {
+        this(pluginRegistry, new NoOpDispatchMetrics());
+    }
+
+    public ResourceGroupedDispatcher(final PluginRegistry pluginRegistry, final DispatchMetrics metrics) {
+        this.pluginRegistry = pluginRegistry;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param parsedEvents events of a batch, for example from {@link com.teragrep.akv_01.event.ParsedEventListFactory}
+     * @return syslog messages of all the events
+     * @throws PluginException if the exception plugin fails
+     */
+    public List<SyslogMessage> syslogMessages(final List<ParsedEvent> parsedEvents) throws PluginException {
+        // the whole batch uses the same plugins, even if the registry is reloaded meanwhile
+        final PluginRegistry registry = pluginRegistry.current();
+        final Map<String, List<ParsedEvent>> groups = new LinkedHashMap<>();
+        final boolean measured = isMeasured();
+        for (final ParsedEvent parsedEvent : parsedEvents) {
+            final String resourceId;
+            if (measured) {
+                resourceId = measuredRoute(registry, parsedEvent);
+            }
+            else {
+                resourceId = new RoutedResourceId(parsedEvent).value();
+            }
+            groups.computeIfAbsent(resourceId, key -> new ArrayList<>()).add(parsedEvent);
+        }
+
+        final List<SyslogMessage> syslogMessages = new ArrayList<>(parsedEvents.size());
+        for (final Map.Entry<String, List<ParsedEvent>> group : groups.entrySet()) {
+            dispatch(registry, group.getKey(), group.getValue(), syslogMessages);
+        }
+        return syslogMessages;
+    }
+
+    private boolean isMeasured() {
+        return !(metrics instanceof NoOpDispatchMetrics);
+    }
+
+    private long now() {
+        final long now;
+        if (isMeasured()) {
+            now = System.nanoTime();
+        }
+        else {
+            now = 0L;
+        }
+        return now;
+    }
+
+    private String measuredRoute(final PluginRegistry registry, final ParsedEvent parsedEvent) {
+        final long start = System.nanoTime();
+        // parses lazily parsed events
+        parsedEvent.isJsonStructure();
+        final long parsed = System.nanoTime();
+        final String resourceId = new RoutedResourceId(parsedEvent).value();
+        final Plugin plugin = registry.plugin(resourceId);
+        final long routed = System.nanoTime();
+
+        final String pluginClassName = plugin.getClass().getName();
+        final MeasuredResourceId measuredResourceId = new MeasuredResourceId(resourceId, plugin, registry);
+        metrics.parse(measuredResourceId.value(), pluginClassName, parsed - start);
+        metrics.route(measuredResourceId.value(), pluginClassName, routed - parsed);
+        if (measuredResourceId.isDefault()) {
+            metrics.defaultFallback(measuredResourceId.value(), pluginClassName);
+        }
+        return resourceId;
+    }
+
+    private void dispatch(
+            final PluginRegistry registry,
+            final String groupResourceId,
+            final List<ParsedEvent> group,
+            final List<SyslogMessage> sink
+    ) throws PluginException {
+        final Plugin plugin = registry.plugin(groupResourceId);
+        final String resourceId = new MeasuredResourceId(groupResourceId, plugin, registry).value();
+        if (plugin instanceof BatchPlugin) {
+            final String pluginClassName = plugin.getClass().getName();
+            final List<SyslogMessage> groupMessages = new ArrayList<>(group.size());
+            final long start = now();
+            try {
+                ((BatchPlugin) plugin).syslogMessages(group, groupMessages);
+                metrics.syslogMessage(resourceId, pluginClassName, group.size(), now() - start);
+            }
+            catch (final PluginException groupFailure) {
+                metrics.syslogMessage(resourceId, pluginClassName, group.size(), now() - start);
+                metrics.pluginException(resourceId, pluginClassName);
+                // the batch does not tell which events were processed, retrying them could process them twice
+                groupMessages.clear();
+                for (int i = 0; i < group.size(); i++) {
+                    metrics.exceptionFallback(resourceId, pluginClassName);
+                }
+                new BatchPluginAdapter(registry.exceptionPlugin()).syslogMessages(group, groupMessages);
+            }
+            sink.addAll(groupMessages);
+        }
+        else {
+            for (final ParsedEvent parsedEvent : group) {
+                dispatchEvent(registry, resourceId, plugin, parsedEvent, sink);
+            }
+        }
+    }
+
+    private void dispatchEvent(
+            final PluginRegistry registry,
+            final String resourceId,
+            final Plugin plugin,
+            final ParsedEvent parsedEvent,
+            final List<SyslogMessage> sink
+    ) throws PluginException {
+        final String pluginClassName = plugin.getClass().getName();
+        final List<ParsedEvent> single = Collections.singletonList(parsedEvent);
+        final List<SyslogMessage> eventMessages = new ArrayList<>();
+        final long start = now();
+        try {
+            new BatchPluginAdapter(plugin).syslogMessages(single, eventMessages);
+            metrics.syslogMessage(resourceId, pluginClassName, 1, now() - start);
+        }
+        catch (final PluginException eventFailure) {
+            metrics.syslogMessage(resourceId, pluginClassName, 1, now() - start);
+            metrics.pluginException(resourceId, pluginClassName);
+            metrics.exceptionFallback(resourceId, pluginClassName);
+            eventMessages.clear();
+            new BatchPluginAdapter(registry.exceptionPlugin()).syslogMessages(single, eventMessages);
+        }
+        sink.addAll(eventMessages);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ResourceGroupedDispatcher that = (ResourceGroupedDispatcher) o;
+        return Objects.equals(pluginRegistry, that.pluginRegistry) && Objects.equals(metrics, that.metrics);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pluginRegistry, metrics);
+    }
+}
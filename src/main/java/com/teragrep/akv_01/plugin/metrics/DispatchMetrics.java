@@ -0,0 +1,108 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin.metrics;
+
+/**
+ * Receives measurements of plugin dispatch, by resourceId and the class name of the plugin the events were routed to.
+ * Events without a resourceId and events routed to the default plugin are reported with an empty resourceId, so the
+ * reported resourceIds are limited to the configured ones. Implementations must be thread-safe.
+ */
+public interface DispatchMetrics {
+
+    /**
+     * Time spent parsing an event during dispatch. Only lazily parsed events are parsed during dispatch, for others the
+     * reported time is that of checking the already parsed result.
+     *
+     * @param resourceId      resourceId of the events, empty for the default plugin
+     * @param pluginClassName class name of the plugin the events were routed to
+     * @param nanos           elapsed time in nanoseconds
+     */
+    public abstract void parse(String resourceId, String pluginClassName, long nanos);
+
+    /**
+     * Time spent extracting the resourceId of an event and looking up its plugin.
+     *
+     * @param resourceId      resourceId of the events, empty for the default plugin
+     * @param pluginClassName class name of the plugin the events were routed to
+     * @param nanos           elapsed time in nanoseconds
+     */
+    public abstract void route(String resourceId, String pluginClassName, long nanos);
+
+    /**
+     * Time spent in a single plugin call and the number of events it was called with, whether the call succeeded or
+     * failed.
+     *
+     * @param resourceId      resourceId of the events, empty for the default plugin
+     * @param pluginClassName class name of the plugin the events were routed to
+     * @param events          number of events the call processed
+     * @param nanos           elapsed time in nanoseconds
+     */
+    public abstract void syslogMessage(String resourceId, String pluginClassName, int events, long nanos);
+
+    /**
+     * A plugin call failed with {@link com.teragrep.akv_01.plugin.PluginException}.
+     *
+     * @param resourceId      resourceId of the events, empty for the default plugin
+     * @param pluginClassName class name of the plugin the events were routed to
+     */
+    public abstract void pluginException(String resourceId, String pluginClassName);
+
+    /**
+     * An event was routed to the default plugin, as its resourceId has no plugin configured.
+     *
+     * @param resourceId      resourceId of the events, empty for the default plugin
+     * @param pluginClassName class name of the plugin the events were routed to
+     */
+    public abstract void defaultFallback(String resourceId, String pluginClassName);
+
+    /**
+     * An event was processed with the exception plugin after the given plugin failed or timed out.
+     *
+     * @param resourceId      resourceId of the events, empty for the default plugin
+     * @param pluginClassName class name of the plugin the events were routed to
+     */
+    public abstract void exceptionFallback(String resourceId, String pluginClassName);
+}
@@ -0,0 +1,131 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of a single resourceId and plugin class, collected by {@link InMemoryDispatchMetrics}.
+ */
+public final class PluginDispatchMetrics {
+
+    private final LongAdder events;
+    private final LongAdder pluginExceptions;
+    private final LongAdder defaultFallbacks;
+    private final LongAdder exceptionFallbacks;
+    private final LatencyHistogram parseLatency;
+    private final LatencyHistogram routeLatency;
+    private final LatencyHistogram syslogMessageLatency;
+
+    PluginDispatchMetrics() {
+        this.events = new LongAdder();
+        this.pluginExceptions = new LongAdder();
+        this.defaultFallbacks = new LongAdder();
+        this.exceptionFallbacks = new LongAdder();
+        this.parseLatency = new LatencyHistogram();
+        this.routeLatency = new LatencyHistogram();
+        this.syslogMessageLatency = new LatencyHistogram();
+    }
+
+    void parse(final long nanos) {
+        parseLatency.record(nanos);
+    }
+
+    void route(final long nanos) {
+        routeLatency.record(nanos);
+    }
+
+    void syslogMessage(final int eventCount, final long nanos) {
+        events.add(eventCount);
+        syslogMessageLatency.record(nanos);
+    }
+
+    void pluginException() {
+        pluginExceptions.increment();
+    }
+
+    void defaultFallback() {
+        defaultFallbacks.increment();
+    }
+
+    void exceptionFallback() {
+        exceptionFallbacks.increment();
+    }
+
+    /**
+     * @return number of events processed by the plugin, including events that failed, each counted once
+     */
+    public long events() {
+        return events.sum();
+    }
+
+    public long pluginExceptions() {
+        return pluginExceptions.sum();
+    }
+
+    public long defaultFallbacks() {
+        return defaultFallbacks.sum();
+    }
+
+    public long exceptionFallbacks() {
+        return exceptionFallbacks.sum();
+    }
+
+    public LatencyHistogram parseLatency() {
+        return parseLatency;
+    }
+
+    public LatencyHistogram routeLatency() {
+        return routeLatency;
+    }
+
+    /**
+     * @return latencies of the plugin calls, a call may process several events
+     */
+    public LatencyHistogram syslogMessageLatency() {
+        return syslogMessageLatency;
+    }
+}
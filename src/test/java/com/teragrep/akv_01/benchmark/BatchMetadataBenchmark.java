@@ -0,0 +1,172 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.benchmark;
+
+import com.teragrep.akv_01.event.LazyParsedEvent;
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventListFactory;
+import com.teragrep.akv_01.event.UnparsedEvent;
+import com.teragrep.akv_01.event.UnparsedEventImpl;
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetImpl;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextImpl;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesImpl;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesImpl;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the metadata built for a batch by {@link ParsedEventListFactory}. The lazy list is used so that JSON parsing
+ * does not hide the metadata allocations. {@code perEventMetadata} builds every metadata object per event and serves as
+ * the baseline. {@code sameMapInstance} selects whether consecutive events carry the same properties map instances or
+ * distinct ones. Run with {@code -prof gc} to see the allocation rate per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(
+        iterations = 3,
+        time = 1
+)
+@Measurement(
+        iterations = 5,
+        time = 1
+)
+@Fork(1)
+public class BatchMetadataBenchmark {
+
+    @Param({
+            "500"
+    })
+    public int batchSize;
+
+    @Param({
+            "false", "true"
+    })
+    public boolean sameMapInstance;
+
+    private String[] payloads;
+    private Map<String, Object> partitionCtx;
+    private Map<String, Object>[] propertiesArray;
+    private Map<String, Object>[] systemPropertiesArray;
+    private List<Object> enqueuedTimeUtcList;
+    private List<String> offsetList;
+
+    @Setup
+    public void setup() {
+        payloads = new String[batchSize];
+        partitionCtx = new HashMap<>();
+        partitionCtx.put("FullyQualifiedNamespace", "namespace.servicebus.windows.net");
+        partitionCtx.put("EventHubName", "eventhub");
+        partitionCtx.put("ConsumerGroup", "$Default");
+        partitionCtx.put("PartitionId", "0");
+        propertiesArray = new Map[batchSize];
+        systemPropertiesArray = new Map[batchSize];
+        enqueuedTimeUtcList = new ArrayList<>(batchSize);
+        offsetList = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            payloads[i] = "{\"resourceId\": \"123\"}";
+            if (sameMapInstance && i > 0) {
+                propertiesArray[i] = propertiesArray[i - 1];
+                systemPropertiesArray[i] = systemPropertiesArray[i - 1];
+            }
+            else {
+                final Map<String, Object> properties = new HashMap<>();
+                properties.put("source", "diagnostics");
+                propertiesArray[i] = properties;
+                final Map<String, Object> systemProperties = new HashMap<>();
+                systemProperties.put("x-opt-enqueued-time", "2010-01-01T00:00:00");
+                systemPropertiesArray[i] = systemProperties;
+            }
+            enqueuedTimeUtcList.add("2010-01-01T00:00:00");
+            offsetList.add(String.valueOf(i));
+        }
+    }
+
+    @Benchmark
+    public List<ParsedEvent> sharedMetadata() {
+        return new ParsedEventListFactory(
+                payloads,
+                partitionCtx,
+                propertiesArray,
+                systemPropertiesArray,
+                enqueuedTimeUtcList,
+                offsetList
+        ).asLazyList();
+    }
+
+    @Benchmark
+    public List<ParsedEvent> perEventMetadata() {
+        final List<ParsedEvent> events = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final UnparsedEvent event = new UnparsedEventImpl(
+                    payloads[i],
+                    new EventPartitionContextImpl(partitionCtx),
+                    new EventPropertiesImpl(propertiesArray[i]),
+                    new EventSystemPropertiesImpl(systemPropertiesArray[i]),
+                    new EnqueuedTimeImpl(enqueuedTimeUtcList.get(i)),
+                    new EventOffsetImpl(offsetList.get(i))
+            );
+            events.add(new LazyParsedEvent(event));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.benchmark;
+
+import com.teragrep.akv_01.event.MultiRecordEvent;
+import com.teragrep.akv_01.event.MultiRecords;
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventFactory;
+import com.teragrep.akv_01.event.StreamingMultiRecordEvent;
+import com.teragrep.akv_01.event.UnparsedEvent;
+import com.teragrep.akv_01.event.UnparsedEventImpl;
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetStub;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextStub;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesStub;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesStub;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeStub;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures extracting the records of a multi record event at different record counts. {@code records} works on an
+ * already parsed envelope, {@code validateThenRecords} checks {@code isValid()} first as callers used to,
+ * {@code multiRecords} validates and extracts in one pass, {@code parseAndRecords} includes parsing the envelope and
+ * {@code streamingRecords} uses {@link StreamingMultiRecordEvent} on the unparsed payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(
+        iterations = 3,
+        time = 1
+)
+@Measurement(
+        iterations = 5,
+        time = 1
+)
+@Fork(1)
+public class MultiRecordEventBenchmark {
+
+    @Param({
+            "1", "10", "100", "1000"
+    })
+    public int recordCount;
+
+    private UnparsedEvent event;
+    private ParsedEvent parsedEvent;
+
+    @Setup
+    public void setup() {
+        final JsonArrayBuilder records = Json.createArrayBuilder();
+        for (int i = 0; i < recordCount; i++) {
+            records
+                    .add(
+                            Json
+                                    .createObjectBuilder()
+                                    .add(
+                                            "resourceId",
+                                            "/SUBSCRIPTIONS/1234/RESOURCEGROUPS/GROUP/PROVIDERS/MICROSOFT.WEB/SITES/SITE"
+                                    )
+                                    .add("time", "2024-01-01T00:00:00.0000000Z")
+                                    .add("category", "AppServiceHTTPLogs")
+                                    .add("properties", Json.createObjectBuilder().add("CsHost", "example.com").add("ScStatus", 200))
+                    );
+        }
+        event = new UnparsedEventImpl(
+                Json.createObjectBuilder().add("records", records).build().toString(),
+                new EventPartitionContextStub(),
+                new EventPropertiesStub(),
+                new EventSystemPropertiesStub(),
+                new EnqueuedTimeStub(),
+                new EventOffsetStub()
+        );
+        parsedEvent = new ParsedEventFactory(event).parsedEvent();
+    }
+
+    @Benchmark
+    public List<ParsedEvent> records() {
+        return new MultiRecordEvent(parsedEvent).records();
+    }
+
+    @Benchmark
+    public List<ParsedEvent> validateThenRecords() {
+        final MultiRecordEvent multiRecordEvent = new MultiRecordEvent(parsedEvent);
+        List<ParsedEvent> records = Collections.emptyList();
+        if (multiRecordEvent.isValid()) {
+            records = multiRecordEvent.records();
+        }
+        return records;
+    }
+
+    @Benchmark
+    public MultiRecords multiRecords() {
+        return new MultiRecordEvent(parsedEvent).multiRecords();
+    }
+
+    @Benchmark
+    public List<ParsedEvent> parseAndRecords() {
+        return new MultiRecordEvent(new ParsedEventFactory(event).parsedEvent()).records();
+    }
+
+    @Benchmark
+    public List<ParsedEvent> streamingRecords() {
+        try (final Stream<ParsedEvent> records = new StreamingMultiRecordEvent(event).records()) {
+            return records.collect(Collectors.toList());
+        }
+    }
+}
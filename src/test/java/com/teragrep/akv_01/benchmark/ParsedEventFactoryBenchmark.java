@@ -0,0 +1,124 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.benchmark;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventFactory;
+import com.teragrep.akv_01.event.UnparsedEvent;
+import com.teragrep.akv_01.event.UnparsedEventImpl;
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetStub;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextStub;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesStub;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesStub;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeStub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ParsedEventFactory#parsedEvent()} on JSON payloads, plain text payloads rejected before parsing, and
+ * malformed JSON payloads rejected by the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(
+        iterations = 3,
+        time = 1
+)
+@Measurement(
+        iterations = 5,
+        time = 1
+)
+@Fork(1)
+public class ParsedEventFactoryBenchmark {
+
+    @Param({
+            "json", "plain", "malformedJson"
+    })
+    public String payloadKind;
+
+    private UnparsedEvent event;
+
+    @Setup
+    public void setup() {
+        final String payload;
+        if ("json".equals(payloadKind)) {
+            payload = "{\"resourceId\": \"/SUBSCRIPTIONS/1234/RESOURCEGROUPS/GROUP/PROVIDERS/MICROSOFT.WEB/SITES/SITE\", "
+                    + "\"time\": \"2024-01-01T00:00:00.0000000Z\", \"category\": \"AppServiceHTTPLogs\", "
+                    + "\"properties\": {\"CsHost\": \"example.com\", \"ScStatus\": 200}}";
+        }
+        else if ("plain".equals(payloadKind)) {
+            payload = "<14>1 2024-01-01T00:00:00.000Z host app - - - plain text message";
+        }
+        else {
+            payload = "{\"resourceId\": \"/SUBSCRIPTIONS/1234\", \"time\": 2024-01-01T00:00:00.0000000Z}";
+        }
+        event = new UnparsedEventImpl(
+                payload,
+                new EventPartitionContextStub(),
+                new EventPropertiesStub(),
+                new EventSystemPropertiesStub(),
+                new EnqueuedTimeStub(),
+                new EventOffsetStub()
+        );
+    }
+
+    @Benchmark
+    public ParsedEvent parsedEvent() {
+        return new ParsedEventFactory(event).parsedEvent();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.corpus;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic generator of Azure EventHub shaped batches for benchmarks and soak tests. The same seed, size and
+ * settings always produce the same batch. Payloads are diagnostic log envelopes with records arrays of varying size,
+ * single JSON objects with or without a resourceId, plain text of several shapes, some of which start like JSON, and
+ * truncated JSON, see {@link PayloadMix}. A few resourceIds receive most of the traffic.
+ */
+public final class EventCorpus {
+
+    private static final DateTimeFormatter enqueuedTimeFormatter = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS")
+            .withZone(ZoneOffset.UTC);
+    private static final String[] categories = new String[] {
+            "AppServiceHTTPLogs", "AppServiceConsoleLogs", "FunctionAppLogs", "AuditEvent", "NetworkSecurityGroupEvent"
+    };
+    private static final String[] levels = new String[] {
+            "Informational", "Warning", "Error"
+    };
+
+    private final long seed;
+    private final int size;
+    private final PayloadMix payloadMix;
+    private final int maxRecords;
+    private final int resourceIdCount;
+
+    public EventCorpus(final long seed, final int size) {
+        this(seed, size, new PayloadMix(), 50, 32);
+    }
+
+    /**
+     * @param seed            seed of the generator
+     * @param size            number of events in the batch
+     * @param payloadMix      relative weights of the payload kinds
+     * @param maxRecords      maximum number of records in a diagnostic log envelope
+     * @param resourceIdCount number of distinct resourceIds
+     */
+    public EventCorpus(
+            final long seed,
+            final int size,
+            final PayloadMix payloadMix,
+            final int maxRecords,
+            final int resourceIdCount
+    ) {
+        this.seed = seed;
+        this.size = size;
+        this.payloadMix = payloadMix;
+        this.maxRecords = maxRecords;
+        this.resourceIdCount = resourceIdCount;
+    }
+
+    public CorpusBatch batch() {
+        final Random random = new Random(seed);
+        final String[] resourceIds = resourceIds(random);
+
+        final Map<String, Object> partitionCtx = new HashMap<>();
+        partitionCtx.put("FullyQualifiedNamespace", "namespace-" + random.nextInt(100) + ".servicebus.windows.net");
+        partitionCtx.put("EventHubName", "insights-logs");
+        partitionCtx.put("ConsumerGroup", "$Default");
+        partitionCtx.put("PartitionId", String.valueOf(random.nextInt(32)));
+
+        final String[] payloads = new String[size];
+        @SuppressWarnings("unchecked")
+        final Map<String, Object>[] propertiesArray = new Map[size];
+        @SuppressWarnings("unchecked")
+        final Map<String, Object>[] systemPropertiesArray = new Map[size];
+        final List<Object> enqueuedTimeUtcList = new ArrayList<>(size);
+        final List<String> offsetList = new ArrayList<>(size);
+
+        // 2024-01-01T00:00:00Z onwards, a few milliseconds between events
+        long enqueuedMicros = 1_704_067_200_000_000L + random.nextInt(1_000_000_000);
+        long offset = random.nextInt(1_000_000);
+        final long firstSequenceNumber = random.nextInt(1_000_000);
+        for (int i = 0; i < size; i++) {
+            payloads[i] = payload(random, resourceIds);
+            enqueuedMicros += random.nextInt(5_000);
+            final String enqueuedTime = enqueuedTimeFormatter
+                    .format(Instant.ofEpochSecond(enqueuedMicros / 1_000_000, (enqueuedMicros % 1_000_000) * 1_000));
+
+            final Map<String, Object> properties = new HashMap<>();
+            if (random.nextInt(4) == 0) {
+                properties.put("Diagnostic-Id", "00-" + uuid(random).replace("-", "") + "-01");
+            }
+            propertiesArray[i] = properties;
+
+            final Map<String, Object> systemProperties = new HashMap<>();
+            systemProperties.put("x-opt-sequence-number", firstSequenceNumber + i);
+            systemProperties.put("x-opt-offset", String.valueOf(offset));
+            systemProperties.put("x-opt-enqueued-time", enqueuedTime);
+            systemPropertiesArray[i] = systemProperties;
+
+            enqueuedTimeUtcList.add(enqueuedTime);
+            offsetList.add(String.valueOf(offset));
+            offset += payloads[i].length();
+        }
+        return new CorpusBatch(
+                payloads,
+                partitionCtx,
+                propertiesArray,
+                systemPropertiesArray,
+                enqueuedTimeUtcList,
+                offsetList
+        );
+    }
+
+    private String[] resourceIds(final Random random) {
+        final String subscription = uuid(random).toUpperCase();
+        final String[] resourceIds = new String[resourceIdCount];
+        for (int i = 0; i < resourceIdCount; i++) {
+            resourceIds[i] = "/SUBSCRIPTIONS/" + subscription + "/RESOURCEGROUPS/RG-" + (i % 4)
+                    + "/PROVIDERS/MICROSOFT.WEB/SITES/SITE-" + Integer.toHexString(random.nextInt());
+        }
+        return resourceIds;
+    }
+
+    private String resourceId(final Random random, final String[] resourceIds) {
+        // product of two uniform values, skewed towards the first resourceIds
+        return resourceIds[(int) (resourceIds.length * random.nextDouble() * random.nextDouble())];
+    }
+
+    private String payload(final Random random, final String[] resourceIds) {
+        final String payload;
+        switch (payloadMix.kind(random.nextInt(payloadMix.total()))) {
+            case RECORDS:
+                payload = records(random, resourceIds);
+                break;
+            case JSON:
+                payload = record(random).add("resourceId", resourceId(random, resourceIds)).build().toString();
+                break;
+            case JSON_WITHOUT_RESOURCE_ID:
+                payload = record(random).build().toString();
+                break;
+            case PLAIN:
+                payload = plain(random);
+                break;
+            default:
+                final String json = records(random, resourceIds);
+                // cut before the closing brace, the top-level object is never complete
+                payload = json.substring(0, 1 + random.nextInt(json.length() - 1));
+                break;
+        }
+        return payload;
+    }
+
+    private String plain(final Random random) {
+        final String message = "request " + uuid(random) + " completed in " + random.nextInt(1000) + " ms";
+        final String payload;
+        switch (random.nextInt(4)) {
+            case 0:
+                payload = "<" + (8 + random.nextInt(8)) + ">1 2024-01-01T00:00:00.000Z host-" + random.nextInt(64)
+                        + " app - - - " + message;
+                break;
+            case 1:
+                // starts like a number, only the parser can reject it
+                payload = "2024-01-01 00:00:" + (10 + random.nextInt(50)) + " " + message;
+                break;
+            case 2:
+                payload = random.nextInt(1000) + " " + message;
+                break;
+            default:
+                payload = "{" + message;
+                break;
+        }
+        return payload;
+    }
+
+    private String records(final Random random, final String[] resourceIds) {
+        // mostly small envelopes, occasionally close to maxRecords
+        final int recordCount = 1 + random.nextInt(1 + random.nextInt(maxRecords));
+        final String resourceId = resourceId(random, resourceIds);
+        final JsonArrayBuilder records = Json.createArrayBuilder();
+        for (int i = 0; i < recordCount; i++) {
+            records.add(record(random).add("resourceId", resourceId));
+        }
+        return Json.createObjectBuilder().add("records", records).build().toString();
+    }
+
+    private JsonObjectBuilder record(final Random random) {
+        return Json
+                .createObjectBuilder()
+                .add("time", "2024-01-01T00:00:" + (10 + random.nextInt(50)) + "." + (1_000_000 + random.nextInt(9_000_000)) + "Z").add("category", categories[random.nextInt(categories.length)]).add("operationName", "Microsoft.Web/sites/log").add("level", levels[random.nextInt(levels.length)]).add("correlationId", uuid(random)).add("properties", Json.createObjectBuilder().add("CsHost", "site-" + random.nextInt(64) + ".azurewebsites.net").add("CsUriStem", "/api/items/" + random.nextInt(10_000)).add("ScStatus", random.nextBoolean() ? 200 : 400 + random.nextInt(104)).add("TimeTaken", random.nextInt(5_000)));
+    }
+
+    private String uuid(final Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
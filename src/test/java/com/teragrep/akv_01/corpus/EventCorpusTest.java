@@ -0,0 +1,170 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.corpus;
+
+import com.teragrep.akv_01.event.MultiRecordEvent;
+import com.teragrep.akv_01.event.ParsedEvent;
+import jakarta.json.JsonException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class EventCorpusTest {
+
+    @Test
+    void testSameSeedSameBatch() {
+        final CorpusBatch first = new EventCorpus(42L, 500).batch();
+        final CorpusBatch second = new EventCorpus(42L, 500).batch();
+        Assertions.assertArrayEquals(first.payloads(), second.payloads());
+        Assertions.assertEquals(first.partitionCtx(), second.partitionCtx());
+        Assertions.assertArrayEquals(first.propertiesArray(), second.propertiesArray());
+        Assertions.assertArrayEquals(first.systemPropertiesArray(), second.systemPropertiesArray());
+        Assertions.assertEquals(first.enqueuedTimeUtcList(), second.enqueuedTimeUtcList());
+        Assertions.assertEquals(first.offsetList(), second.offsetList());
+    }
+
+    @Test
+    void testDifferentSeedDifferentBatch() {
+        Assertions
+                .assertFalse(Arrays.equals(new EventCorpus(1L, 100).batch().payloads(), new EventCorpus(2L, 100).batch().payloads()));
+    }
+
+    @Test
+    void testPayloadKinds() {
+        final List<ParsedEvent> events = new EventCorpus(7L, 2000).batch().parsedEventListFactory().asList();
+        Assertions.assertEquals(2000, events.size());
+
+        int records = 0;
+        int json = 0;
+        int jsonWithoutResourceId = 0;
+        int notJson = 0;
+        int maxRecords = 0;
+        for (final ParsedEvent event : events) {
+            if (!event.isJsonStructure()) {
+                notJson++;
+            }
+            else if (new MultiRecordEvent(event).multiRecords().isMultiRecord()) {
+                records++;
+                maxRecords = Math.max(maxRecords, new MultiRecordEvent(event).multiRecords().records().size());
+            }
+            else if (event.asJsonStructure().asJsonObject().containsKey("resourceId")) {
+                json++;
+            }
+            else {
+                jsonWithoutResourceId++;
+                Assertions.assertThrows(JsonException.class, event::resourceId);
+            }
+        }
+        // default mix is 50/25/5/15+5 out of 100
+        Assertions.assertTrue(records > 900 && records < 1100, "records was " + records);
+        Assertions.assertTrue(json > 400 && json < 600, "json was " + json);
+        Assertions.assertTrue(jsonWithoutResourceId > 50 && jsonWithoutResourceId < 150);
+        Assertions.assertTrue(notJson > 300 && notJson < 500, "notJson was " + notJson);
+        Assertions.assertTrue(maxRecords > 25, "maxRecords was " + maxRecords);
+    }
+
+    @Test
+    void testMalformedJsonDoesNotParse() {
+        final List<ParsedEvent> events = new EventCorpus(3L, 200, new PayloadMix(0, 0, 0, 0, 1), 50, 32)
+                .batch()
+                .parsedEventListFactory()
+                .asList();
+        for (final ParsedEvent event : events) {
+            Assertions.assertTrue(event.payload().startsWith("{"));
+            Assertions.assertFalse(event.isJsonStructure(), event.payload());
+        }
+    }
+
+    @Test
+    void testPlainDoesNotParse() {
+        final List<ParsedEvent> events = new EventCorpus(5L, 200, new PayloadMix(0, 0, 0, 1, 0), 50, 32)
+                .batch()
+                .parsedEventListFactory()
+                .asList();
+        int syslog = 0;
+        int numeric = 0;
+        int brace = 0;
+        for (final ParsedEvent event : events) {
+            Assertions.assertFalse(event.isJsonStructure(), event.payload());
+            final char first = event.payload().charAt(0);
+            if (first == '<') {
+                syslog++;
+            }
+            else if (first == '{') {
+                brace++;
+            }
+            else if (first >= '0' && first <= '9') {
+                numeric++;
+            }
+        }
+        Assertions.assertTrue(syslog > 0, "syslog was " + syslog);
+        Assertions.assertTrue(numeric > 0, "numeric was " + numeric);
+        Assertions.assertTrue(brace > 0, "brace was " + brace);
+    }
+
+    @Test
+    void testMetadata() {
+        final CorpusBatch batch = new EventCorpus(11L, 100).batch();
+        final List<ParsedEvent> events = batch.parsedEventListFactory().asList();
+        long previousOffset = -1;
+        long previousMillis = 0;
+        for (int i = 0; i < events.size(); i++) {
+            final ParsedEvent event = events.get(i);
+            final long offset = Long.parseLong(event.offset().value());
+            Assertions.assertTrue(offset > previousOffset);
+            previousOffset = offset;
+
+            final long millis = event.enqueuedTimeUtc().epochMillis();
+            Assertions.assertTrue(millis >= previousMillis);
+            previousMillis = millis;
+
+            Assertions.assertEquals(batch.offsetList().get(i), event.systemProperties().asMap().get("x-opt-offset"));
+            Assertions.assertEquals(batch.partitionCtx(), event.partitionCtx().asMap());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.corpus;
+
+/**
+ * Relative weights of the payload kinds generated by {@link EventCorpus}.
+ */
+public final class PayloadMix {
+
+    private final int records;
+    private final int json;
+    private final int jsonWithoutResourceId;
+    private final int plain;
+    private final int malformedJson;
+
+    /**
+     * Traffic mix dominated by diagnostic log envelopes, with some single events, plain text and broken payloads.
+     */
+    public PayloadMix() {
+        this(50, 25, 5, 15, 5);
+    }
+
+    /**
+     * @param records               weight of diagnostic log envelopes with a records array
+     * @param json                  weight of single JSON objects with a resourceId
+     * @param jsonWithoutResourceId weight of single JSON objects without a resourceId
+     * @param plain                 weight of plain text payloads, including lines that start like JSON
+     * @param malformedJson         weight of truncated JSON payloads
+     */
+    public PayloadMix(
+            final int records,
+            final int json,
+            final int jsonWithoutResourceId,
+            final int plain,
+            final int malformedJson
+    ) {
+        this.records = records;
+        this.json = json;
+        this.jsonWithoutResourceId = jsonWithoutResourceId;
+        this.plain = plain;
+        this.malformedJson = malformedJson;
+    }
+
+    int total() {
+        return records + json + jsonWithoutResourceId + plain + malformedJson;
+    }
+
+    PayloadKind kind(final int roll) {
+        final PayloadKind kind;
+        if (roll < records) {
+            kind = PayloadKind.RECORDS;
+        }
+        else if (roll < records + json) {
+            kind = PayloadKind.JSON;
+        }
+        else if (roll < records + json + jsonWithoutResourceId) {
+            kind = PayloadKind.JSON_WITHOUT_RESOURCE_ID;
+        }
+        else if (roll < records + json + jsonWithoutResourceId + plain) {
+            kind = PayloadKind.PLAIN;
+        }
+        else {
+            kind = PayloadKind.MALFORMED_JSON;
+        }
+        return kind;
+    }
+}
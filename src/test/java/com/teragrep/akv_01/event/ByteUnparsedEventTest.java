@@ -0,0 +1,226 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.corpus.EventCorpus;
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetStub;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextStub;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesStub;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesStub;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeStub;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParsingException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class ByteUnparsedEventTest {
+
+    private ByteUnparsedEvent byteEvent(final ByteBuffer payload) {
+        return new ByteUnparsedEvent(
+                payload,
+                new EventPartitionContextStub(),
+                new EventPropertiesStub(),
+                new EventSystemPropertiesStub(),
+                new EnqueuedTimeStub(),
+                new EventOffsetStub()
+        );
+    }
+
+    private UnparsedEventImpl stringEvent(final String payload) {
+        return new UnparsedEventImpl(
+                payload,
+                new EventPartitionContextStub(),
+                new EventPropertiesStub(),
+                new EventSystemPropertiesStub(),
+                new EnqueuedTimeStub(),
+                new EventOffsetStub()
+        );
+    }
+
+    private String parseResult(final UnparsedEvent event) {
+        String result;
+        try {
+            final ParsedEvent parsedEvent = new ParsedEventFactory(event).parsedEvent();
+            if (parsedEvent.isJsonStructure()) {
+                result = "json " + parsedEvent.asJsonStructure();
+            }
+            else {
+                result = "plain";
+            }
+        }
+        catch (final JsonException e) {
+            // top-level scalars are reported by the parser with a JsonException
+            result = e.getClass().getName() + " " + e.getMessage();
+        }
+        return result;
+    }
+
+    private void assertSameAsString(final byte[] bytes) {
+        final String payload = new String(bytes, StandardCharsets.UTF_8);
+        final ByteUnparsedEvent byteEvent = byteEvent(ByteBuffer.wrap(bytes));
+
+        Assertions.assertEquals(parseResult(stringEvent(payload)), parseResult(byteEvent), payload);
+        Assertions.assertEquals(stringEvent(payload).isJsonCandidate(), byteEvent.isJsonCandidate(), payload);
+        Assertions.assertEquals(payload, byteEvent.payload());
+    }
+
+    @Test
+    void testSameResultsAsStringPayloadOnCorpus() {
+        for (final String payload : new EventCorpus(5L, 500).batch().payloads()) {
+            assertSameAsString(payload.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testSameResultsAsStringPayloadOnEdgeCases() {
+        final String[] payloads = new String[] {
+                "",
+                " ",
+                "{}",
+                "[]",
+                "\"string\"",
+                "123",
+                "{\"resourceId\": \"äöå €\"}",
+                "{\"emoji\": \"😀\"}",
+                "ä{\"resourceId\": \"1\"}",
+                "﻿{\"resourceId\": \"1\"}",
+                "{\"unterminated\": \"ä"
+        };
+        for (final String payload : payloads) {
+            assertSameAsString(payload.getBytes(StandardCharsets.UTF_8));
+        }
+        // invalid UTF-8 is replaced the same way as when decoding to String
+        assertSameAsString(new byte[] {
+                '{', '"', 'a', '"', ':', '"', (byte) 0xC3, '"', '}'
+        });
+    }
+
+    @Test
+    void testBufferPositionIsRespectedAndKept() {
+        final byte[] bytes = "xx{\"resourceId\": \"123\"}yy".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+        final ByteUnparsedEvent event = byteEvent(buffer);
+
+        Assertions.assertEquals("123", event.parseJson().asJsonObject().getString("resourceId"));
+        Assertions.assertEquals("123", event.parseJson().asJsonObject().getString("resourceId"));
+        Assertions.assertEquals("{\"resourceId\": \"123\"}", event.payload());
+        Assertions.assertEquals(2, buffer.position());
+        Assertions.assertEquals(bytes.length - 2, buffer.limit());
+    }
+
+    @Test
+    void testDirectAndReadOnlyBuffers() {
+        final byte[] bytes = "{\"resourceId\": \"ä\"}".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        final ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+
+        for (final ByteBuffer buffer : new ByteBuffer[] {
+                direct, readOnly
+        }) {
+            final ByteUnparsedEvent event = byteEvent(buffer);
+            Assertions.assertEquals("ä", event.parseJson().asJsonObject().getString("resourceId"));
+            Assertions.assertEquals("{\"resourceId\": \"ä\"}", event.payload());
+        }
+    }
+
+    @Test
+    void testPlainPayload() {
+        final ByteUnparsedEvent event = new ByteUnparsedEvent(
+                "plain".getBytes(StandardCharsets.UTF_8),
+                new EventPartitionContextStub(),
+                new EventPropertiesStub(),
+                new EventSystemPropertiesStub(),
+                new EnqueuedTimeStub(),
+                new EventOffsetStub()
+        );
+        Assertions.assertFalse(event.isJsonCandidate());
+        Assertions.assertThrows(JsonParsingException.class, event::parseJson);
+        Assertions.assertEquals(PlainEvent.class, new ParsedEventFactory(event).parsedEvent().getClass());
+    }
+
+    @Test
+    void testByteChars() {
+        final CharSequence chars = new ByteChars(ByteBuffer.wrap("a{ä".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(4, chars.length());
+        Assertions.assertEquals('{', chars.charAt(1));
+        Assertions.assertEquals((char) 0xC3, chars.charAt(2));
+        Assertions.assertEquals("{", chars.subSequence(1, 2).toString());
+    }
+
+    @Test
+    void testUtf8ReaderWithSingleCharReads() throws IOException {
+        final byte[] bytes = "a😀ä€\uFEFF".getBytes(StandardCharsets.UTF_8);
+        final byte[] truncated = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, truncated, 0, bytes.length);
+        truncated[bytes.length] = (byte) 0xF0;
+        truncated[bytes.length + 1] = (byte) 0x9F;
+
+        // truncated sequence at the end is replaced as by String
+        final String text = new String(truncated, StandardCharsets.UTF_8);
+
+        final Utf8Reader reader = new Utf8Reader(ByteBuffer.wrap(truncated));
+        final StringBuilder stringBuilder = new StringBuilder();
+        final char[] chars = new char[1];
+        int read = reader.read(chars, 0, 1);
+        while (read != -1) {
+            Assertions.assertEquals(1, read);
+            stringBuilder.append(chars[0]);
+            read = reader.read(chars, 0, 1);
+        }
+        Assertions.assertEquals(text, stringBuilder.toString());
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(ByteUnparsedEvent.class).withIgnoredFields("payload", "readerFactory").verify();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Random;
+
+public final class JsonCandidateTest {
+
+    @Test
+    void testCandidates() {
+        final String[] candidates = new String[] {
+                "{}",
+                " \n\t\r{\"key\": \"value\"}",
+                "[]",
+                "[1]",
+                "[ {}]",
+                "[\"a\"]",
+                "[-1]",
+                "[true]",
+                "[null]",
+                "{\"unterminated"
+        };
+        for (final String candidate : candidates) {
+            Assertions.assertTrue(new JsonCandidate(candidate).isCandidate(), candidate);
+        }
+    }
+
+    @Test
+    void testNonCandidates() {
+        final String[] nonCandidates = new String[] {
+                "",
+                "   ",
+                "\n",
+                "abc",
+                "<14>1 2024-01-01T00:00:00Z host app - - - msg",
+                "[INFO] message",
+                "{key: value}",
+                "{ 'key': 'value'}",
+                "{",
+                "[",
+                "[ ",
+                "\uFEFF{}",
+                "\f{}",
+                "Xtrue",
+                "[x]",
+                "{,}",
+                "123",
+                "-x",
+                "\"string\"",
+                "true",
+                "fals",
+                "nul",
+                "2024-01-01 message",
+                "123 abc"
+        };
+        for (final String nonCandidate : nonCandidates) {
+            Assertions.assertFalse(new JsonCandidate(nonCandidate).isCandidate(), nonCandidate);
+        }
+    }
+
+    @Test
+    void testNonCandidatesAreRejectedByParser() {
+        final String alphabet = "{}[]\":, \n\t\r\f-01truefnax<'";
+        final JsonReaderFactory readerFactory = Json.createReaderFactory(Collections.emptyMap());
+        final Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            final char[] chars = new char[random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            final String payload = new String(chars);
+            if (!new JsonCandidate(payload).isCandidate()) {
+                try (final JsonReader jsonReader = readerFactory.createReader(new StringReader(payload))) {
+                    Assertions.assertThrows(JsonException.class, jsonReader::read, payload);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.event.metadata.offset.EventOffset;
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetImpl;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContext;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextImpl;
+import com.teragrep.akv_01.event.metadata.properties.EventProperties;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesImpl;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesImpl;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
+import jakarta.json.JsonStructure;
+import jakarta.json.stream.JsonParsingException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class LazyParsedEventTest {
+
+    @Test
+    void testMetadataDoesNotParse() {
+        final CountingUnparsedEvent unparsed = new CountingUnparsedEvent("{\"resourceId\": \"123\"}");
+        final ParsedEvent event = new ParsedEventFactory(unparsed).lazyParsedEvent();
+
+        Assertions.assertEquals(LazyParsedEvent.class, event.getClass());
+        Assertions.assertEquals("{\"resourceId\": \"123\"}", event.payload());
+        Assertions.assertEquals("{\"resourceId\": \"123\"}", event.asString());
+        Assertions.assertEquals(unparsed.properties(), event.properties());
+        Assertions.assertEquals(unparsed.systemProperties(), event.systemProperties());
+        Assertions.assertEquals(unparsed.partitionCtx(), event.partitionCtx());
+        Assertions.assertEquals(unparsed.enqueuedTimeUtc(), event.enqueuedTimeUtc());
+        Assertions.assertEquals(unparsed.offset(), event.offset());
+        Assertions.assertEquals(0, unparsed.parseCount());
+    }
+
+    @Test
+    void testJsonPayloadIsParsedOnce() {
+        final CountingUnparsedEvent unparsed = new CountingUnparsedEvent("{\"resourceId\": \"123\"}");
+        final ParsedEvent event = new LazyParsedEvent(unparsed);
+
+        Assertions.assertTrue(event.isJsonStructure());
+        Assertions.assertEquals("123", event.resourceId());
+        Assertions.assertEquals("123", event.asJsonStructure().asJsonObject().getString("resourceId"));
+        Assertions.assertEquals(1, unparsed.parseCount());
+    }
+
+    @Test
+    void testPlainPayload() {
+        final CountingUnparsedEvent unparsed = new CountingUnparsedEvent("{plain payload");
+        final ParsedEvent event = new LazyParsedEvent(unparsed);
+
+        Assertions.assertFalse(event.isJsonStructure());
+        Assertions.assertThrows(UnsupportedOperationException.class, event::asJsonStructure);
+        Assertions.assertThrows(UnsupportedOperationException.class, event::resourceId);
+        Assertions.assertEquals("{plain payload", event.asString());
+        // rejected by the default isJsonCandidate() of UnparsedEvent without parsing
+        Assertions.assertEquals(0, unparsed.parseCount());
+    }
+
+    @Test
+    void testConcurrentAccessParsesOnce() {
+        final CountingUnparsedEvent unparsed = new CountingUnparsedEvent("{\"resourceId\": \"123\"}");
+        final ParsedEvent event = new LazyParsedEvent(unparsed);
+
+        final List<CompletableFuture<JsonStructure>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(CompletableFuture.supplyAsync(event::asJsonStructure));
+        }
+        final JsonStructure first = futures.get(0).join();
+        for (final CompletableFuture<JsonStructure> future : futures) {
+            Assertions.assertSame(first, future.join());
+        }
+        Assertions.assertEquals(1, unparsed.parseCount());
+    }
+
+    @Test
+    void testListFactory() {
+        final String[] payloads = new String[] {
+                "{\"resourceId\": \"123\"}", "string payload"
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(payloads, null, null, null, null, null)
+                .asLazyList();
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(LazyParsedEvent.class, events.get(0).getClass());
+        Assertions.assertEquals(LazyParsedEvent.class, events.get(1).getClass());
+        Assertions.assertEquals("123", events.get(0).resourceId());
+        Assertions.assertFalse(events.get(1).isJsonStructure());
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(LazyParsedEvent.class).withIgnoredFields("parsed").verify();
+    }
+
+    private static final class CountingUnparsedEvent implements UnparsedEvent {
+
+        private final UnparsedEvent event;
+        private final AtomicInteger count;
+
+        private CountingUnparsedEvent(final String payload) {
+            this.event = new UnparsedEventImpl(
+                    payload,
+                    new EventPartitionContextImpl(new HashMap<>()),
+                    new EventPropertiesImpl(new HashMap<>()),
+                    new EventSystemPropertiesImpl(new HashMap<>()),
+                    new EnqueuedTimeImpl("2010-01-01T00:00:00"),
+                    new EventOffsetImpl("0")
+            );
+            this.count = new AtomicInteger();
+        }
+
+        private int parseCount() {
+            return count.get();
+        }
+
+        @Override
+        public JsonStructure parseJson() throws JsonParsingException {
+            count.incrementAndGet();
+            return event.parseJson();
+        }
+
+        @Override
+        public String payload() {
+            return event.payload();
+        }
+
+        @Override
+        public EventPartitionContext partitionCtx() {
+            return event.partitionCtx();
+        }
+
+        @Override
+        public EventProperties properties() {
+            return event.properties();
+        }
+
+        @Override
+        public EventSystemProperties systemProperties() {
+            return event.systemProperties();
+        }
+
+        @Override
+        public EnqueuedTime enqueuedTimeUtc() {
+            return event.enqueuedTimeUtc();
+        }
+
+        @Override
+        public EventOffset offset() {
+            return event.offset();
+        }
+    }
+}
@@ -45,6 +45,7 @@
  */
 package com.teragrep.akv_01.event;
 
+import com.teragrep.akv_01.corpus.EventCorpus;
 import com.teragrep.akv_01.event.metadata.offset.EventOffset;
 import com.teragrep.akv_01.event.metadata.offset.EventOffsetImpl;
 import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContext;
@@ -56,6 +57,7 @@ import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
 import jakarta.json.Json;
+import jakarta.json.JsonObject;
 import jakarta.json.JsonStructure;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -116,6 +118,38 @@ public final class MultiRecordEventTest {
         Assertions.assertEquals(parsed.systemProperties(), r2.systemProperties());
     }
 
+    @Test
+    void testRecordsAreNotReparsed() {
+        final JsonObject record = Json.createObjectBuilder().add("resourceId", "123").add("key", "value").build();
+        final String payload = Json
+                .createObjectBuilder()
+                .add("records", Json.createArrayBuilder().add(record))
+                .build()
+                .toString();
+        final UnparsedEvent impl = new UnparsedEventImpl(
+                payload,
+                new EventPartitionContextImpl(new HashMap<>()),
+                new EventPropertiesImpl(new HashMap<>()),
+                new EventSystemPropertiesImpl(new HashMap<>()),
+                new EnqueuedTimeImpl("2010-01-01T00:00:00"),
+                new EventOffsetImpl("0")
+        );
+
+        final ParsedEvent parsed = new ParsedEventFactory(impl).parsedEvent();
+        final List<ParsedEvent> records = new MultiRecordEvent(parsed).records();
+        Assertions.assertEquals(1, records.size());
+
+        final ParsedEvent r1 = records.get(0);
+        Assertions.assertEquals(JSONEvent.class, r1.getClass());
+        // record structure is the same instance as in the parsed envelope
+        Assertions
+                .assertSame(parsed.asJsonStructure().asJsonObject().getJsonArray("records").get(0), r1.asJsonStructure());
+        Assertions.assertEquals(record, r1.asJsonStructure());
+        Assertions.assertEquals(record.toString(), r1.payload());
+        Assertions.assertEquals(record.toString(), r1.asString());
+        Assertions.assertEquals("123", r1.resourceId());
+    }
+
     @Test
     void testJsonPayloadWithStringRecords() {
         final String payload = Json
@@ -199,4 +233,47 @@ public final class MultiRecordEventTest {
         Assertions.assertFalse(mre.isValid());
         Assertions.assertThrows(IllegalStateException.class, mre::records);
     }
+
+    @Test
+    void testMultiRecordsMatchesIsValidAndRecords() {
+        final String[] payloads = new String[] {
+                "{\"records\": []}",
+                "{\"records\": [{\"resourceId\": \"123\"}, {\"key\": \"value\"}]}",
+                "{\"records\": [{\"resourceId\": \"123\"}, \"string\"]}",
+                "{\"records\": [\"string\", {\"resourceId\": \"123\"}]}",
+                "{\"records\": null}",
+                "{\"records\": {}}",
+                "[{\"records\": []}]",
+                "{}",
+                "abc"
+        };
+        for (final String payload : payloads) {
+            final UnparsedEvent impl = new UnparsedEventImpl(
+                    payload,
+                    new EventPartitionContextImpl(new HashMap<>()),
+                    new EventPropertiesImpl(new HashMap<>()),
+                    new EventSystemPropertiesImpl(new HashMap<>()),
+                    new EnqueuedTimeImpl("2010-01-01T00:00:00"),
+                    new EventOffsetImpl("0")
+            );
+            assertSameAsIsValidAndRecords(new ParsedEventFactory(impl).parsedEvent());
+        }
+        for (final ParsedEvent parsed : new EventCorpus(23L, 500).batch().parsedEventListFactory().asList()) {
+            assertSameAsIsValidAndRecords(parsed);
+        }
+    }
+
+    private void assertSameAsIsValidAndRecords(final ParsedEvent parsed) {
+        final MultiRecordEvent mre = new MultiRecordEvent(parsed);
+        final MultiRecords multiRecords = mre.multiRecords();
+        Assertions.assertEquals(mre.isValid(), multiRecords.isMultiRecord(), parsed.payload());
+        if (mre.isValid()) {
+            Assertions.assertEquals(MultiRecordsImpl.class, multiRecords.getClass());
+            Assertions.assertEquals(mre.records(), multiRecords.records());
+        }
+        else {
+            Assertions.assertEquals(new NotMultiRecords(), multiRecords);
+            Assertions.assertThrows(IllegalStateException.class, multiRecords::records);
+        }
+    }
 }
@@ -46,13 +46,22 @@
 package com.teragrep.akv_01.event;
 
 import jakarta.json.Json;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class ParsedEventListFactoryTest {
 
@@ -98,6 +107,78 @@ public final class ParsedEventListFactoryTest {
         Assertions.assertEquals("123", events.get(2).resourceId());
     }
 
+    @Test
+    void testPayloadsStartingWithScalarArePlain() {
+        final String[] payloads = new String[] {
+                "123 abc", "2024-01-01 message", "\"quoted\" message", "true story", "{broken"
+        };
+        final List<ParsedEvent> events = Assertions
+                .assertDoesNotThrow(new ParsedEventListFactory(payloads, null, null, null, null, null)::asList);
+        for (final ParsedEvent event : events) {
+            Assertions.assertEquals(PlainEvent.class, event.getClass(), event.payload());
+        }
+    }
+
+    @Test
+    void testEventsEqualDirectlyBuiltEvents() {
+        final String[] payloads = new String[] {
+                "{\"resourceId\": \"123\"}", "string payload"
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(payloads, null, null, null, null, null).asList();
+
+        for (int i = 0; i < payloads.length; i++) {
+            final ParsedEvent event = events.get(i);
+            // same metadata, parsed with the default reader factory of UnparsedEventImpl
+            final UnparsedEvent direct = new UnparsedEventImpl(
+                    payloads[i],
+                    event.partitionCtx(),
+                    event.properties(),
+                    event.systemProperties(),
+                    event.enqueuedTimeUtc(),
+                    event.offset()
+            );
+            Assertions.assertEquals(new ParsedEventFactory(direct).parsedEvent(), event);
+        }
+    }
+
+    @Test
+    void testMetadataIsReusedWithinBatch() {
+        final String[] payloads = new String[] {
+                "{}", "{}", "{}"
+        };
+        final Map<String, Object> partitionCtx = new HashMap<>();
+        partitionCtx.put("PartitionId", "0");
+        final Map<String, Object> props = new HashMap<>();
+        props.put("key", "value");
+        final Map<String, Object> equalProps = new HashMap<>(props);
+        final Map<String, Object>[] propArray = new Map[] {
+                props, props, equalProps
+        };
+        final Map<String, Object> sysProps = new HashMap<>();
+        final Map<String, Object>[] sysPropArray = new Map[] {
+                sysProps, sysProps, sysProps
+        };
+
+        final List<ParsedEvent> events = new ParsedEventListFactory(
+                payloads,
+                partitionCtx,
+                propArray,
+                sysPropArray,
+                null,
+                null
+        ).asList();
+
+        Assertions.assertSame(events.get(0).partitionCtx(), events.get(1).partitionCtx());
+        Assertions.assertSame(events.get(0).partitionCtx(), events.get(2).partitionCtx());
+        Assertions.assertEquals(partitionCtx, events.get(0).partitionCtx().asMap());
+        Assertions.assertSame(events.get(0).properties(), events.get(1).properties());
+        Assertions.assertNotSame(events.get(1).properties(), events.get(2).properties());
+        Assertions.assertSame(props, events.get(1).properties().asMap());
+        Assertions.assertSame(equalProps, events.get(2).properties().asMap());
+        Assertions.assertSame(events.get(0).systemProperties(), events.get(1).systemProperties());
+        Assertions.assertSame(events.get(0).systemProperties(), events.get(2).systemProperties());
+    }
+
     @Test
     void testAsListMethodWithNullObjects() {
         final String payload = Json.createObjectBuilder().add("resourceId", "123").build().toString();
@@ -182,8 +263,142 @@ public final class ParsedEventListFactoryTest {
         Assertions.assertEquals("123", events.get(2).resourceId());
     }
 
+    @Test
+    void testAsParallelListKeepsOrder() {
+        final String[] payloads = new String[1000];
+        final List<Object> enqueuedTimeList = new ArrayList<>();
+        final List<String> offsetList = new ArrayList<>();
+        for (int i = 0; i < payloads.length; i++) {
+            if (i % 7 == 0) {
+                payloads[i] = "string payload " + i;
+            }
+            else if (i % 11 != 0) {
+                payloads[i] = Json.createObjectBuilder().add("resourceId", String.valueOf(i)).build().toString();
+            }
+            enqueuedTimeList.add("2010-01-01T00:00:00");
+            offsetList.add(String.valueOf(i));
+        }
+        final ParsedEventListFactory arrayFactory = new ParsedEventListFactory(
+                payloads,
+                new HashMap<>(),
+                null,
+                null,
+                enqueuedTimeList,
+                offsetList
+        );
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final List<ParsedEvent> expected = arrayFactory.asList();
+            final List<ParsedEvent> events = arrayFactory.asParallelList(pool, 64);
+            Assertions.assertEquals(expected.size(), events.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assertions.assertEquals(expected.get(i).getClass(), events.get(i).getClass());
+                Assertions.assertEquals(expected.get(i).payload(), events.get(i).payload());
+                Assertions.assertEquals(expected.get(i).offset().value(), events.get(i).offset().value());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testAsParallelListSmallBatchStaysOnCallingThread() {
+        final String payload = Json.createObjectBuilder().add("resourceId", "123").build().toString();
+        final String[] payloads = new String[] {
+                payload, "string payload", payload
+        };
+        final ParsedEventListFactory arrayFactory = new ParsedEventListFactory(payloads, null, null, null, null, null);
+        final Executor executor = command -> Assertions.fail("Executor should not be used for small batches");
+
+        final List<ParsedEvent> events = Assertions.assertDoesNotThrow(() -> arrayFactory.asParallelList(executor, 3));
+        Assertions.assertEquals(3, events.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> arrayFactory.asParallelList(executor, 0));
+    }
+
+    @Test
+    void testAsParallelListPropagatesException() {
+        final String[] payloads = new String[] {
+                "{}", "{}", "{}", "{}"
+        };
+        // the last event has no enqueued time
+        final List<Object> enqueuedTimes = Arrays
+                .asList("2010-01-01T00:00:00", "2010-01-01T00:00:00", "2010-01-01T00:00:00");
+        final ParsedEventListFactory arrayFactory = new ParsedEventListFactory(
+                payloads,
+                null,
+                null,
+                null,
+                enqueuedTimes,
+                null
+        );
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> arrayFactory.asParallelList(pool, 2));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testAsParallelListCancelsChunksOnFailure() {
+        final String[] payloads = new String[] {
+                "{}", "{}", "{}", "{}", "{}", "{}"
+        };
+        final AtomicBoolean failing = new AtomicBoolean(true);
+        final AtomicInteger readers = new AtomicInteger();
+        final JsonReaderFactory delegate = Json.createReaderFactory(Collections.emptyMap());
+        final JsonReaderFactory readerFactory = new JsonReaderFactory() {
+
+            @Override
+            public JsonReader createReader(final Reader reader) {
+                if (failing.get()) {
+                    throw new IllegalStateException("failing reader");
+                }
+                readers.incrementAndGet();
+                return delegate.createReader(reader);
+            }
+
+            @Override
+            public JsonReader createReader(final InputStream in) {
+                return delegate.createReader(in);
+            }
+
+            @Override
+            public JsonReader createReader(final InputStream in, final Charset charset) {
+                return delegate.createReader(in, charset);
+            }
+
+            @Override
+            public Map<String, ?> getConfigInUse() {
+                return delegate.getConfigInUse();
+            }
+        };
+        final Queue<Runnable> queued = new ArrayDeque<>();
+        final ParsedEventListFactory arrayFactory = new ParsedEventListFactory(
+                payloads,
+                null,
+                null,
+                null,
+                null,
+                null,
+                readerFactory
+        );
+
+        // the calling thread fails on its own chunk before the executor has started the others
+        Assertions.assertThrows(IllegalStateException.class, () -> arrayFactory.asParallelList(queued::add, 2));
+        Assertions.assertEquals(2, queued.size());
+        failing.set(false);
+        for (final Runnable runnable : queued) {
+            runnable.run();
+        }
+        Assertions.assertEquals(0, readers.get());
+    }
+
     @Test
     void testEqualsContract() {
-        EqualsVerifier.forClass(ParsedEventListFactory.class).verify();
+        EqualsVerifier.forClass(ParsedEventListFactory.class).withIgnoredFields("readerFactory").verify();
     }
 }
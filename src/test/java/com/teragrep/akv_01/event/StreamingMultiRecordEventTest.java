@@ -0,0 +1,163 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetImpl;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextImpl;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesImpl;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesImpl;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public final class StreamingMultiRecordEventTest {
+
+    private UnparsedEvent unparsedEvent(final String payload) {
+        return new UnparsedEventImpl(
+                payload,
+                new EventPartitionContextImpl(new HashMap<>()),
+                new EventPropertiesImpl(new HashMap<>()),
+                new EventSystemPropertiesImpl(new HashMap<>()),
+                new EnqueuedTimeImpl("2010-01-01T00:00:00"),
+                new EventOffsetImpl("0")
+        );
+    }
+
+    @Test
+    void testRecordsMatchMultiRecordEvent() {
+        final String payload = Json
+                .createObjectBuilder()
+                .add("header", Json.createObjectBuilder().add("records", Json.createArrayBuilder().add("nested")))
+                .add("other", Json.createArrayBuilder().add(Json.createArrayBuilder().add(1)).add(Json.createObjectBuilder())).add("records", Json.createArrayBuilder().add(Json.createObjectBuilder().add("resourceId", "1").add("nested", Json.createObjectBuilder().add("key", "value"))).add(Json.createObjectBuilder().add("resourceId", "2"))).add("trailer", "value").build().toString();
+        final UnparsedEvent event = unparsedEvent(payload);
+
+        final List<ParsedEvent> expected = new MultiRecordEvent(new ParsedEventFactory(event).parsedEvent()).records();
+        final List<ParsedEvent> records;
+        try (final Stream<ParsedEvent> stream = new StreamingMultiRecordEvent(event).records()) {
+            records = stream.collect(Collectors.toList());
+        }
+
+        Assertions.assertEquals(2, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Assertions.assertEquals(expected.get(i).asJsonStructure(), records.get(i).asJsonStructure());
+            Assertions.assertEquals(expected.get(i).payload(), records.get(i).payload());
+            Assertions.assertEquals(expected.get(i).resourceId(), records.get(i).resourceId());
+            Assertions.assertEquals(event.offset(), records.get(i).offset());
+            Assertions.assertEquals(event.enqueuedTimeUtc(), records.get(i).enqueuedTimeUtc());
+        }
+    }
+
+    @Test
+    void testRecordsAreProducedBeforeRestOfPayloadIsRead() {
+        final JsonObject record = Json.createObjectBuilder().add("key", "value").build();
+        final String payload = "{\"records\":[" + record + "," + record + ",{\"broken\"";
+        final Iterator<ParsedEvent> iterator = new StreamingMultiRecordEvent(unparsedEvent(payload))
+                .records()
+                .iterator();
+
+        Assertions.assertEquals(record, iterator.next().asJsonStructure());
+        Assertions.assertEquals(record, iterator.next().asJsonStructure());
+        Assertions.assertThrows(IllegalStateException.class, iterator::hasNext);
+    }
+
+    @Test
+    void testEmptyRecords() {
+        final String payload = Json.createObjectBuilder().add("records", Json.createArrayBuilder()).build().toString();
+        Assertions.assertEquals(0, new StreamingMultiRecordEvent(unparsedEvent(payload)).records().count());
+    }
+
+    @Test
+    void testStringRecords() {
+        final String payload = Json
+                .createObjectBuilder()
+                .add("records", Json.createArrayBuilder().add("string1").add("string2"))
+                .build()
+                .toString();
+        final Stream<ParsedEvent> stream = new StreamingMultiRecordEvent(unparsedEvent(payload)).records();
+        Assertions.assertThrows(IllegalStateException.class, stream::count);
+    }
+
+    @Test
+    void testNoRecords() {
+        final String payload = Json.createObjectBuilder().add("key", "value").build().toString();
+        final Stream<ParsedEvent> stream = new StreamingMultiRecordEvent(unparsedEvent(payload)).records();
+        Assertions.assertThrows(IllegalStateException.class, stream::count);
+    }
+
+    @Test
+    void testRecordsNotArray() {
+        final String payload = Json.createObjectBuilder().add("records", "value").build().toString();
+        final Stream<ParsedEvent> stream = new StreamingMultiRecordEvent(unparsedEvent(payload)).records();
+        Assertions.assertThrows(IllegalStateException.class, stream::count);
+    }
+
+    @Test
+    void testTopLevelArray() {
+        final String payload = Json.createArrayBuilder().add(Json.createObjectBuilder()).build().toString();
+        final Stream<ParsedEvent> stream = new StreamingMultiRecordEvent(unparsedEvent(payload)).records();
+        Assertions.assertThrows(IllegalStateException.class, stream::count);
+    }
+
+    @Test
+    void testPlainPayload() {
+        final Stream<ParsedEvent> stream = new StreamingMultiRecordEvent(unparsedEvent("abc")).records();
+        Assertions.assertThrows(IllegalStateException.class, stream::count);
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(StreamingMultiRecordEvent.class).withIgnoredFields("parserFactory").verify();
+    }
+}
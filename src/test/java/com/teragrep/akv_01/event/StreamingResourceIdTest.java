@@ -0,0 +1,117 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.event;
+
+import com.teragrep.akv_01.event.metadata.offset.EventOffsetStub;
+import com.teragrep.akv_01.event.metadata.partitionContext.EventPartitionContextStub;
+import com.teragrep.akv_01.event.metadata.properties.EventPropertiesStub;
+import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemPropertiesStub;
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeStub;
+import jakarta.json.JsonException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class StreamingResourceIdTest {
+
+    private UnparsedEvent unparsedEvent(final String payload) {
+        return new UnparsedEventImpl(
+                payload,
+                new EventPartitionContextStub(),
+                new EventPropertiesStub(),
+                new EventSystemPropertiesStub(),
+                new EnqueuedTimeStub(),
+                new EventOffsetStub()
+        );
+    }
+
+    @Test
+    void testSameResultsAsJSONEvent() {
+        final String[] payloads = new String[] {
+                "{\"resourceId\": \"123\"}",
+                "{\"time\": \"2024-01-01\", \"resourceId\": \"123\", \"category\": \"cat\"}",
+                "{\"properties\": {\"resourceId\": \"nested\"}, \"records\": [{\"resourceId\": \"record\"}], \"resourceId\": \"top\"}",
+                "{\"number\": 1.5, \"flag\": true, \"nothing\": null, \"resourceId\": \"\"}"
+        };
+        for (final String payload : payloads) {
+            final UnparsedEvent event = unparsedEvent(payload);
+            Assertions
+                    .assertEquals(new ParsedEventFactory(event).parsedEvent().resourceId(), new StreamingResourceId(event).resourceId());
+        }
+    }
+
+    @Test
+    void testSameExceptionsAsJSONEvent() {
+        final String[] payloads = new String[] {
+                "{}",
+                "[]",
+                "[{\"resourceId\": \"123\"}]",
+                "{\"properties\": {\"resourceId\": \"nested\"}}",
+                "{\"resourceId\": 123}",
+                "{\"resourceId\": null}",
+                "{\"resourceId\": {\"id\": \"123\"}}"
+        };
+        for (final String payload : payloads) {
+            final UnparsedEvent event = unparsedEvent(payload);
+            final ParsedEvent parsedEvent = new ParsedEventFactory(event).parsedEvent();
+            final JsonException expected = Assertions.assertThrows(JsonException.class, parsedEvent::resourceId);
+            final JsonException actual = Assertions
+                    .assertThrows(JsonException.class, new StreamingResourceId(event)::resourceId);
+            Assertions.assertEquals(expected.getMessage(), actual.getMessage(), payload);
+        }
+    }
+
+    @Test
+    void testStopsAtResourceId() {
+        final String payload = "{\"resourceId\": \"123\", \"rest\": [not json at all";
+        Assertions.assertEquals("123", new StreamingResourceId(unparsedEvent(payload)).resourceId());
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(StreamingResourceId.class).withIgnoredFields("parserFactory").verify();
+    }
+}
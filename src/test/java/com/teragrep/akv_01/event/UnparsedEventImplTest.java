@@ -56,11 +56,16 @@ import com.teragrep.akv_01.event.metadata.systemProperties.EventSystemProperties
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeStub;
+import jakarta.json.Json;
+import jakarta.json.JsonReaderFactory;
 import jakarta.json.JsonStructure;
+import jakarta.json.stream.JsonParsingException;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Assertions;
+import org.eclipse.parsson.api.JsonConfig;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.HashMap;
 
 public final class UnparsedEventImplTest {
@@ -137,8 +142,25 @@ public final class UnparsedEventImplTest {
         Assertions.assertThrows(UnsupportedOperationException.class, () -> parsed.enqueuedTimeUtc().zonedDateTime());
     }
 
+    @Test
+    void testWithInjectedReaderFactory() {
+        final String payload = "{\"resourceId\": \"12345\", \"resourceId\": \"67890\"}";
+        final JsonReaderFactory readerFactory = Json
+                .createReaderFactory(Collections.singletonMap(JsonConfig.REJECT_DUPLICATE_KEYS, true));
+        final UnparsedEvent impl = new UnparsedEventImpl(
+                payload,
+                new EventPartitionContextImpl(new HashMap<>()),
+                new EventPropertiesImpl(new HashMap<>()),
+                new EventSystemPropertiesImpl(new HashMap<>()),
+                new EnqueuedTimeImpl("2010-01-01T00:00:00"),
+                new EventOffsetImpl("0"),
+                readerFactory
+        );
+        Assertions.assertThrows(JsonParsingException.class, impl::parseJson);
+    }
+
     @Test
     void testEqualsContract() {
-        EqualsVerifier.forClass(UnparsedEventImpl.class).verify();
+        EqualsVerifier.forClass(UnparsedEventImpl.class).withIgnoredFields("readerFactory").verify();
     }
 }
@@ -0,0 +1,335 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import com.teragrep.akv_01.corpus.EventCorpus;
+import com.teragrep.akv_01.corpus.PayloadMix;
+import com.teragrep.akv_01.event.MultiRecordEvent;
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventListFactory;
+import com.teragrep.akv_01.corpus.CorpusBatch;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParsingException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+public final class CompactJsonReaderFactoryTest {
+
+    private final JsonReaderFactory parssonFactory = Json.createReaderFactory(Collections.emptyMap());
+    private final JsonReaderFactory compactFactory = new CompactJsonReaderFactory();
+
+    private JsonStructure read(final JsonReaderFactory readerFactory, final String json) {
+        try (final JsonReader jsonReader = readerFactory.createReader(new StringReader(json))) {
+            return jsonReader.read();
+        }
+    }
+
+    private String readResult(final JsonReaderFactory readerFactory, final String json) {
+        String result;
+        try {
+            result = "structure " + read(readerFactory, json);
+        }
+        catch (final JsonException e) {
+            result = e.getClass().getName() + " " + e.getMessage();
+        }
+        return result;
+    }
+
+    @Test
+    void testSameTreesAsParssonOnCorpus() {
+        for (final String payload : new EventCorpus(13L, 1000).batch().payloads()) {
+            final String expected = readResult(parssonFactory, payload);
+            Assertions.assertEquals(expected, readResult(compactFactory, payload), payload);
+            if (expected.startsWith("structure")) {
+                final JsonStructure parsson = read(parssonFactory, payload);
+                final JsonStructure compact = read(compactFactory, payload);
+                Assertions.assertEquals(parsson, compact);
+                Assertions.assertEquals(compact, parsson);
+                Assertions.assertEquals(parsson.hashCode(), compact.hashCode());
+                Assertions.assertEquals(parsson.toString(), compact.toString());
+            }
+        }
+    }
+
+    @Test
+    void testSameResultsAsParssonOnEdgeCases() {
+        final String[] payloads = new String[] {
+                "{}",
+                "[]",
+                "{} trailing",
+                "123",
+                "\"string\"",
+                "null",
+                "",
+                "{",
+                "[1,",
+                "{\"a\" 1}",
+                "{\"a\":1}}",
+                "[1, 2.5, -3e10, 12345678901234567890, true, false, null, \"s\", {}, []]",
+                "{\"a\": 1, \"b\": 2, \"a\": 3}"
+        };
+        for (final String payload : payloads) {
+            Assertions.assertEquals(readResult(parssonFactory, payload), readResult(compactFactory, payload), payload);
+        }
+    }
+
+    @Test
+    void testDuplicateKeys() {
+        final StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 20; i++) {
+            json.append("\"k").append(i).append("\": ").append(i).append(", ");
+        }
+        json.append("\"k3\": \"last\", \"k15\": \"last\"}");
+        final JsonObject parsson = read(parssonFactory, json.toString()).asJsonObject();
+        final JsonObject compact = read(compactFactory, json.toString()).asJsonObject();
+        Assertions.assertEquals(parsson, compact);
+        Assertions.assertEquals(20, compact.size());
+        Assertions.assertEquals("last", compact.getString("k3"));
+        Assertions.assertEquals("last", compact.getString("k15"));
+        Assertions.assertEquals(List.copyOf(parsson.keySet()), List.copyOf(compact.keySet()));
+    }
+
+    @Test
+    void testLargeObjectLookup() {
+        final StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ", ").append("\"key").append(i).append("\": ").append(i);
+        }
+        json.append('}');
+        final JsonObject compact = read(compactFactory, json.toString()).asJsonObject();
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(i, compact.getInt("key" + i));
+        }
+        Assertions.assertFalse(compact.containsKey("key1000"));
+        Assertions.assertNull(compact.get(null));
+    }
+
+    @Test
+    void testAccessors() {
+        final String json = "{\"s\": \"str\", \"i\": 42, \"t\": true, \"f\": false, \"n\": null, \"o\": {\"x\": 1}, "
+                + "\"a\": [\"str\", 42, true, false, null, {}, []]}";
+        final JsonObject parsson = read(parssonFactory, json).asJsonObject();
+        final JsonObject compact = read(compactFactory, json).asJsonObject();
+
+        Assertions.assertEquals(parsson.getString("s"), compact.getString("s"));
+        Assertions.assertEquals(parsson.getString("i", "default"), compact.getString("i", "default"));
+        Assertions.assertEquals(parsson.getInt("i"), compact.getInt("i"));
+        Assertions.assertEquals(parsson.getInt("s", -1), compact.getInt("s", -1));
+        Assertions.assertEquals(parsson.getBoolean("t"), compact.getBoolean("t"));
+        Assertions.assertEquals(parsson.getBoolean("f"), compact.getBoolean("f"));
+        Assertions.assertEquals(parsson.getBoolean("s", true), compact.getBoolean("s", true));
+        Assertions.assertEquals(parsson.getBoolean("missing", true), compact.getBoolean("missing", true));
+        Assertions.assertEquals(parsson.isNull("n"), compact.isNull("n"));
+        Assertions.assertEquals(parsson.isNull("s"), compact.isNull("s"));
+        Assertions.assertEquals(parsson.getJsonObject("o"), compact.getJsonObject("o"));
+        Assertions.assertEquals(parsson.getJsonNumber("i"), compact.getJsonNumber("i"));
+        Assertions.assertEquals(JsonValue.ValueType.OBJECT, compact.getValueType());
+        Assertions.assertThrows(NullPointerException.class, () -> compact.getString("missing"));
+        Assertions.assertThrows(NullPointerException.class, () -> compact.getBoolean("missing"));
+        Assertions.assertThrows(ClassCastException.class, () -> compact.getBoolean("s"));
+        Assertions.assertThrows(ClassCastException.class, () -> compact.getJsonArray("s"));
+
+        final JsonArray parssonArray = parsson.getJsonArray("a");
+        final JsonArray compactArray = compact.getJsonArray("a");
+        Assertions.assertEquals(JsonValue.ValueType.ARRAY, compactArray.getValueType());
+        Assertions.assertEquals(parssonArray.getString(0), compactArray.getString(0));
+        Assertions.assertEquals(parssonArray.getString(1, "default"), compactArray.getString(1, "default"));
+        Assertions.assertEquals(parssonArray.getString(100, "default"), compactArray.getString(100, "default"));
+        Assertions.assertEquals(parssonArray.getInt(1), compactArray.getInt(1));
+        Assertions.assertEquals(parssonArray.getInt(0, -1), compactArray.getInt(0, -1));
+        Assertions.assertEquals(parssonArray.getBoolean(2), compactArray.getBoolean(2));
+        Assertions.assertEquals(parssonArray.getBoolean(3), compactArray.getBoolean(3));
+        Assertions.assertEquals(parssonArray.getBoolean(0, true), compactArray.getBoolean(0, true));
+        Assertions.assertEquals(parssonArray.isNull(4), compactArray.isNull(4));
+        Assertions.assertEquals(parssonArray.getJsonObject(5), compactArray.getJsonObject(5));
+        Assertions.assertEquals(parssonArray.getJsonArray(6), compactArray.getJsonArray(6));
+        Assertions.assertEquals(parssonArray.getValuesAs(JsonValue.class), compactArray.getValuesAs(JsonValue.class));
+        Assertions.assertThrows(ClassCastException.class, () -> compactArray.getBoolean(0));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> compactArray.get(7));
+    }
+
+    @Test
+    void testImmutable() {
+        final JsonObject compact = read(compactFactory, "{\"a\": [1]}").asJsonObject();
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compact.put("b", JsonValue.NULL));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compact.remove("a"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compact.entrySet().clear());
+        Assertions
+                .assertThrows(UnsupportedOperationException.class, () -> compact.getJsonArray("a").add(JsonValue.NULL));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compact.getJsonArray("a").remove(0));
+    }
+
+    @Test
+    void testKeysAreSharedAcrossDocuments() {
+        final KeyDictionary keyDictionary = new KeyDictionary();
+        final JsonReaderFactory readerFactory = new CompactJsonReaderFactory(
+                new ThreadLocalBufferPool(),
+                keyDictionary
+        );
+        final JsonObject first = read(readerFactory, "{\"category\": \"a\"}").asJsonObject();
+        final JsonObject second = read(readerFactory, "{\"category\": \"b\"}").asJsonObject();
+
+        Assertions.assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        Assertions.assertEquals(1, keyDictionary.hits());
+        Assertions.assertEquals(1, keyDictionary.misses());
+    }
+
+    @Test
+    void testKeysAreSharedWithinDocument() {
+        final JsonObject compact = read(compactFactory, "[{\"resourceId\": \"a\"}, {\"resourceId\": \"b\"}]")
+                .asJsonArray()
+                .getJsonObject(0);
+        final JsonObject other = read(compactFactory, "[{\"resourceId\": \"a\"}, {\"resourceId\": \"b\"}]")
+                .asJsonArray()
+                .getJsonObject(1);
+        Assertions.assertEquals(compact.keySet(), other.keySet());
+        final JsonArray array = read(compactFactory, "[{\"resourceId\": \"a\"}, {\"resourceId\": \"b\"}]")
+                .asJsonArray();
+        Assertions
+                .assertSame(array.getJsonObject(0).keySet().iterator().next(), array.getJsonObject(1).keySet().iterator().next());
+    }
+
+    @Test
+    void testDeepNesting() {
+        final StringBuilder json = new StringBuilder();
+        // deepest nesting the parser accepts
+        for (int i = 0; i < 999; i++) {
+            json.append('[');
+        }
+        for (int i = 0; i < 999; i++) {
+            json.append(']');
+        }
+        Assertions.assertEquals(read(parssonFactory, json.toString()), read(compactFactory, json.toString()));
+        JsonArray array = read(compactFactory, json.toString()).asJsonArray();
+        int depth = 1;
+        while (!array.isEmpty()) {
+            array = array.getJsonArray(0);
+            depth++;
+        }
+        Assertions.assertEquals(999, depth);
+    }
+
+    @Test
+    void testReadObjectAndArray() {
+        try (final JsonReader jsonReader = compactFactory.createReader(new StringReader("[]"))) {
+            Assertions.assertThrows(JsonParsingException.class, jsonReader::readObject);
+        }
+        try (final JsonReader jsonReader = compactFactory.createReader(new StringReader("{}"))) {
+            Assertions.assertThrows(JsonParsingException.class, jsonReader::readArray);
+        }
+        try (final JsonReader jsonReader = compactFactory.createReader(new StringReader("{\"a\": 1}"))) {
+            Assertions.assertEquals(1, jsonReader.readObject().getInt("a"));
+            Assertions.assertThrows(IllegalStateException.class, jsonReader::read);
+        }
+        try (final JsonReader jsonReader = compactFactory.createReader(new StringReader("12"))) {
+            Assertions.assertEquals(Json.createValue(12), jsonReader.readValue());
+        }
+    }
+
+    @Test
+    void testParsedEvents() {
+        final CorpusBatch batch = new EventCorpus(17L, 300).batch();
+        final List<ParsedEvent> parssonEvents = new ParsedEventListFactory(
+                batch.payloads(),
+                batch.partitionCtx(),
+                batch.propertiesArray(),
+                batch.systemPropertiesArray(),
+                batch.enqueuedTimeUtcList(),
+                batch.offsetList(),
+                parssonFactory
+        ).asList();
+        final List<ParsedEvent> compactEvents = new ParsedEventListFactory(
+                batch.payloads(),
+                batch.partitionCtx(),
+                batch.propertiesArray(),
+                batch.systemPropertiesArray(),
+                batch.enqueuedTimeUtcList(),
+                batch.offsetList(),
+                compactFactory
+        ).asList();
+        for (int i = 0; i < parssonEvents.size(); i++) {
+            final ParsedEvent parsson = parssonEvents.get(i);
+            final ParsedEvent compact = compactEvents.get(i);
+            Assertions.assertEquals(parsson.isJsonStructure(), compact.isJsonStructure());
+            if (parsson.isJsonStructure()) {
+                Assertions.assertEquals(parsson.asJsonStructure(), compact.asJsonStructure());
+                final MultiRecordEvent parssonRecords = new MultiRecordEvent(parsson);
+                final MultiRecordEvent compactRecords = new MultiRecordEvent(compact);
+                Assertions.assertEquals(parssonRecords.isValid(), compactRecords.isValid());
+                if (parssonRecords.isValid()) {
+                    final List<ParsedEvent> expected = parssonRecords.records();
+                    final List<ParsedEvent> actual = compactRecords.records();
+                    Assertions.assertEquals(expected.size(), actual.size());
+                    for (int j = 0; j < expected.size(); j++) {
+                        Assertions.assertEquals(expected.get(j).resourceId(), actual.get(j).resourceId());
+                        Assertions.assertEquals(expected.get(j).asJsonStructure(), actual.get(j).asJsonStructure());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMalformedCorpus() {
+        // malformed envelopes fail the same way
+        for (
+            final String payload : new EventCorpus(19L, 200, new PayloadMix(0, 0, 0, 0, 1), 20, 4).batch().payloads()
+        ) {
+            Assertions.assertEquals(readResult(parssonFactory, payload), readResult(compactFactory, payload), payload);
+        }
+    }
+}
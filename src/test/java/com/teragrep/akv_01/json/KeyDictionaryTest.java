@@ -0,0 +1,141 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public final class KeyDictionaryTest {
+
+    @Test
+    void testInternsEqualKeys() {
+        final KeyDictionary keyDictionary = new KeyDictionary();
+        final String first = keyDictionary.intern(new String("resourceId".toCharArray()));
+        final String second = keyDictionary.intern(new String("resourceId".toCharArray()));
+
+        Assertions.assertEquals("resourceId", second);
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, keyDictionary.hits());
+        Assertions.assertEquals(1, keyDictionary.misses());
+        Assertions.assertEquals(0, keyDictionary.evictions());
+        Assertions.assertEquals(0.5, keyDictionary.hitRate());
+    }
+
+    @Test
+    void testHitRateWithoutKeys() {
+        Assertions.assertEquals(0, new KeyDictionary().hitRate());
+    }
+
+    @Test
+    void testLongKeysAreNotStored() {
+        final KeyDictionary keyDictionary = new KeyDictionary(4, 8);
+        final String first = keyDictionary.intern(new String("operationName".toCharArray()));
+        final String second = keyDictionary.intern(new String("operationName".toCharArray()));
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(0, keyDictionary.hits());
+        Assertions.assertEquals(2, keyDictionary.misses());
+    }
+
+    @Test
+    void testBoundedUnderDistinctKeys() {
+        final KeyDictionary keyDictionary = new KeyDictionary(8, 64);
+        for (int i = 0; i < 10000; i++) {
+            keyDictionary.intern("key" + i);
+        }
+
+        Assertions.assertEquals(16, keyDictionary.capacity());
+        Assertions.assertEquals(10000, keyDictionary.misses());
+        // keys stored are the misses not yet evicted
+        Assertions.assertTrue(keyDictionary.misses() - keyDictionary.evictions() <= keyDictionary.capacity());
+        Assertions.assertTrue(keyDictionary.evictions() >= 10000 - keyDictionary.capacity());
+    }
+
+    @Test
+    void testRecentKeysSurviveChurn() {
+        final KeyDictionary keyDictionary = new KeyDictionary(8, 64);
+        for (int i = 0; i < 1000; i++) {
+            keyDictionary.intern("key" + i);
+        }
+        final String category = keyDictionary.intern(new String("category".toCharArray()));
+
+        Assertions.assertSame(category, keyDictionary.intern(new String("category".toCharArray())));
+    }
+
+    @Test
+    void testConcurrentInterning() {
+        final KeyDictionary keyDictionary = new KeyDictionary();
+        final String[] keys = new String[] {
+                "time", "resourceId", "category", "operationName", "properties", "level", "location"
+        };
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    final String key = keys[i % keys.length];
+                    Assertions.assertEquals(key, keyDictionary.intern(new String(key.toCharArray())));
+                }
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        Assertions.assertEquals(80000, keyDictionary.hits() + keyDictionary.misses());
+        Assertions.assertTrue(keyDictionary.hitRate() > 0.99);
+    }
+
+    @Test
+    void testSetsMustBePowerOfTwo() {
+        final IllegalArgumentException exception = Assertions
+                .assertThrows(IllegalArgumentException.class, () -> new KeyDictionary(6, 64));
+        Assertions.assertEquals("Sets must be a positive power of two, was <6>", exception.getMessage());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new KeyDictionary(0, 64));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.json;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public final class ThreadLocalBufferPoolTest {
+
+    @Test
+    void testRecycledBufferIsReused() {
+        final ThreadLocalBufferPool pool = new ThreadLocalBufferPool();
+        final char[] first = pool.take();
+        Assertions.assertEquals(4096, first.length);
+        pool.recycle(first);
+        Assertions.assertSame(first, pool.take());
+        Assertions.assertEquals(1, pool.hits());
+        Assertions.assertEquals(1, pool.misses());
+    }
+
+    @Test
+    void testGrownBufferIsNotKept() {
+        final ThreadLocalBufferPool pool = new ThreadLocalBufferPool(16, 2);
+        pool.take();
+        // the parser replaces the taken buffer with a larger copy when a token does not fit
+        final char[] grown = new char[1024 * 1024];
+        pool.recycle(grown);
+        final char[] next = pool.take();
+        Assertions.assertNotSame(grown, next);
+        Assertions.assertEquals(16, next.length);
+        Assertions.assertEquals(0, pool.hits());
+        Assertions.assertEquals(2, pool.misses());
+    }
+
+    @Test
+    void testBuffersAreNotSharedBetweenThreads() {
+        final ThreadLocalBufferPool pool = new ThreadLocalBufferPool();
+        pool.recycle(pool.take());
+        final char[] other = CompletableFuture.supplyAsync(pool::take).join();
+        Assertions.assertNotNull(other);
+        Assertions.assertEquals(0, pool.hits());
+        Assertions.assertEquals(2, pool.misses());
+    }
+
+    @Test
+    void testRecycledBuffersPerThreadAreBounded() {
+        final ThreadLocalBufferPool pool = new ThreadLocalBufferPool(16, 2);
+        final char[] first = pool.take();
+        final char[] second = pool.take();
+        final char[] third = pool.take();
+        pool.recycle(first);
+        pool.recycle(second);
+        pool.recycle(third);
+        Assertions.assertSame(second, pool.take());
+        Assertions.assertSame(first, pool.take());
+        Assertions.assertEquals(16, pool.take().length);
+        Assertions.assertEquals(2, pool.hits());
+        Assertions.assertEquals(4, pool.misses());
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventListFactory;
+import com.teragrep.akv_01.plugin.metrics.InMemoryDispatchMetrics;
+import com.teragrep.akv_01.plugin.metrics.PluginDispatchMetrics;
+import com.teragrep.rlo_14.SyslogMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class AsyncDispatcherTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private Plugin prefixPlugin(final String prefix) {
+        return parsedEvent -> {
+            if (parsedEvent.payload().contains("fail")) {
+                throw new PluginException("failed");
+            }
+            return Collections.singletonList(new SyslogMessage().withMsg(prefix + parsedEvent.payload()));
+        };
+    }
+
+    private List<ParsedEvent> events(final String ... payloads) {
+        return new ParsedEventListFactory(payloads, null, null, null, null, null).asList();
+    }
+
+    private List<String> messages(final List<SyslogMessage> syslogMessages) {
+        final List<String> messages = new ArrayList<>();
+        for (final SyslogMessage syslogMessage : syslogMessages) {
+            messages.add(syslogMessage.getMsg());
+        }
+        return messages;
+    }
+
+    @Test
+    void testMessagesKeepEventOrder() {
+        final Map<String, Plugin> plugins = new HashMap<>();
+        plugins.put("a", prefixPlugin("a:"));
+        final PluginRegistry registry = new PluginRegistryImpl(
+                plugins,
+                prefixPlugin("default:"),
+                parsedEvent -> Collections
+                        .singletonList(new SyslogMessage().withMsg("exception:" + parsedEvent.payload()))
+        );
+        final List<ParsedEvent> events = events(
+                "{\"resourceId\":\"a\"}", "plain", "{\"resourceId\":\"a\",\"n\":\"fail\"}", "{\"resourceId\":\"b\"}"
+        );
+
+        final List<SyslogMessage> syslogMessages = new AsyncDispatcher(registry, executor, 2)
+                .syslogMessages("0", events)
+                .toCompletableFuture()
+                .join();
+        final List<String> expected = new ArrayList<>();
+        expected.add("a:{\"resourceId\":\"a\"}");
+        expected.add("default:plain");
+        expected.add("exception:{\"resourceId\":\"a\",\"n\":\"fail\"}");
+        expected.add("default:{\"resourceId\":\"b\"}");
+        Assertions.assertEquals(expected, messages(syslogMessages));
+    }
+
+    @Test
+    void testMetrics() {
+        final Map<String, Plugin> plugins = new HashMap<>();
+        plugins.put("a", prefixPlugin("a:"));
+        final PluginRegistry registry = new PluginRegistryImpl(
+                plugins,
+                prefixPlugin("default:"),
+                parsedEvent -> Collections
+                        .singletonList(new SyslogMessage().withMsg("exception:" + parsedEvent.payload()))
+        );
+        final InMemoryDispatchMetrics metrics = new InMemoryDispatchMetrics();
+        final List<ParsedEvent> events = events(
+                "{\"resourceId\":\"a\"}", "plain", "{\"resourceId\":\"a\",\"n\":\"fail\"}"
+        );
+
+        new AsyncDispatcher(registry, executor, 2, new PluginTimeouts(Collections.emptyMap(), Duration.ZERO), metrics)
+                .syslogMessages("0", events)
+                .toCompletableFuture()
+                .join();
+
+        final PluginDispatchMetrics a = metrics.asMap().get("a").get(registry.plugin("a").getClass().getName());
+        Assertions.assertEquals(2, a.events());
+        Assertions.assertEquals(2, a.parseLatency().count());
+        Assertions.assertEquals(2, a.routeLatency().count());
+        Assertions.assertEquals(2, a.syslogMessageLatency().count());
+        Assertions.assertEquals(1, a.pluginExceptions());
+        Assertions.assertEquals(1, a.exceptionFallbacks());
+
+        final PluginDispatchMetrics plain = metrics.asMap().get("").get(registry.defaultPlugin().getClass().getName());
+        Assertions.assertEquals(1, plain.events());
+        Assertions.assertEquals(1, plain.defaultFallbacks());
+    }
+
+    @Test
+    void testFailingExceptionPlugin() {
+        final PluginRegistry registry = new PluginRegistryImpl(
+                Collections.emptyMap(),
+                prefixPlugin("default:"),
+                new PluginStub()
+        );
+        final CompletableFuture<List<SyslogMessage>> future = new AsyncDispatcher(registry, executor, 1)
+                .syslogMessages("0", events("fail"))
+                .toCompletableFuture();
+        final CompletionException exception = Assertions.assertThrows(CompletionException.class, future::join);
+        Assertions.assertEquals(PluginException.class, exception.getCause().getClass());
+    }
+
+    @Test
+    void testRoutingFailureCompletesExceptionally() {
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(new PluginRegistryStub(), executor, 1);
+        final CompletableFuture<List<SyslogMessage>> event = Assertions
+                .assertDoesNotThrow(() -> dispatcher.syslogMessage(events("plain").get(0)));
+        final CompletionException exception = Assertions.assertThrows(CompletionException.class, event::join);
+        Assertions.assertEquals(UnsupportedOperationException.class, exception.getCause().getClass());
+
+        final CompletableFuture<List<SyslogMessage>> batch = Assertions
+                .assertDoesNotThrow(() -> dispatcher.syslogMessages("0", events("plain")).toCompletableFuture());
+        Assertions.assertThrows(CompletionException.class, batch::join);
+    }
+
+    @Test
+    void testConcurrencyLimitPerResourceId() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Plugin slowPlugin = parsedEvent -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return Collections.emptyList();
+        };
+        final PluginRegistry registry = new PluginRegistryImpl(Collections.emptyMap(), slowPlugin, new PluginStub());
+        final List<ParsedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            events.addAll(events("{\"resourceId\":\"a\"}"));
+        }
+
+        new AsyncDispatcher(registry, executor, 3).syslogMessages("0", events).toCompletableFuture().join();
+        Assertions.assertTrue(maxRunning.get() <= 3, "max running was " + maxRunning.get());
+        Assertions.assertTrue(maxRunning.get() > 1, "max running was " + maxRunning.get());
+    }
+
+    @Test
+    void testPartitionOrdering() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Plugin blockingPlugin = parsedEvent -> {
+            if (parsedEvent.payload().contains("block")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Collections.singletonList(new SyslogMessage().withMsg(parsedEvent.payload()));
+        };
+        final PluginRegistry registry = new PluginRegistryImpl(
+                Collections.emptyMap(),
+                blockingPlugin,
+                new PluginStub()
+        );
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(registry, executor, 4);
+
+        final CompletableFuture<List<SyslogMessage>> first = dispatcher
+                .syslogMessages("0", events("block"))
+                .toCompletableFuture();
+        final CompletableFuture<List<SyslogMessage>> second = dispatcher
+                .syslogMessages("0", events("second"))
+                .toCompletableFuture();
+        final CompletableFuture<List<SyslogMessage>> otherPartition = dispatcher
+                .syslogMessages("1", events("other"))
+                .toCompletableFuture();
+
+        Assertions.assertEquals("other", otherPartition.join().get(0).getMsg());
+        Thread.sleep(50);
+        Assertions.assertFalse(second.isDone());
+        release.countDown();
+        Assertions.assertEquals("second", second.join().get(0).getMsg());
+        Assertions.assertTrue(first.isDone());
+    }
+
+    @Test
+    void testTimeoutFallsBackToExceptionPlugin() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Plugin hangingPlugin = parsedEvent -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(new SyslogMessage().withMsg("hanging:" + parsedEvent.payload()));
+        };
+        final Map<String, Plugin> plugins = new HashMap<>();
+        plugins.put("slow", hangingPlugin);
+        plugins.put("fast", prefixPlugin("fast:"));
+        final PluginRegistry registry = new PluginRegistryImpl(
+                plugins,
+                prefixPlugin("default:"),
+                parsedEvent -> Collections
+                        .singletonList(new SyslogMessage().withMsg("exception:" + parsedEvent.payload()))
+        );
+        final Map<String, Duration> timeouts = new HashMap<>();
+        timeouts.put("slow", Duration.ofMillis(100));
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(
+                registry,
+                executor,
+                1,
+                new PluginTimeouts(timeouts, Duration.ZERO)
+        );
+
+        // the second slow event waits for the first one to release the only slot and times out while queued
+        final List<SyslogMessage> syslogMessages = dispatcher
+                .syslogMessages(
+                        "0",
+                        events(
+                                "{\"resourceId\":\"slow\",\"n\":1}", "{\"resourceId\":\"slow\",\"n\":2}",
+                                "{\"resourceId\":\"fast\"}"
+                        )
+                )
+                .toCompletableFuture()
+                .join();
+        release.countDown();
+
+        final List<String> expected = new ArrayList<>();
+        expected.add("exception:{\"resourceId\":\"slow\",\"n\":1}");
+        expected.add("exception:{\"resourceId\":\"slow\",\"n\":2}");
+        expected.add("fast:{\"resourceId\":\"fast\"}");
+        Assertions.assertEquals(expected, messages(syslogMessages));
+    }
+
+    @Test
+    void testExceptionPluginTimeout() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Plugin hangingPlugin = parsedEvent -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyList();
+        };
+        final PluginRegistry registry = new PluginRegistryImpl(Collections.emptyMap(), hangingPlugin, hangingPlugin);
+        final AsyncDispatcher dispatcher = new AsyncDispatcher(
+                registry,
+                executor,
+                1,
+                new PluginTimeouts(Collections.emptyMap(), Duration.ofMillis(50))
+        );
+
+        final CompletableFuture<List<SyslogMessage>> future = dispatcher
+                .syslogMessages("0", events("plain"))
+                .toCompletableFuture();
+        final CompletionException exception = Assertions.assertThrows(CompletionException.class, future::join);
+        release.countDown();
+        Assertions.assertEquals(TimeoutException.class, exception.getCause().getClass());
+    }
+
+    @Test
+    void testInvalidConcurrencyLimit() {
+        Assertions
+                .assertThrows(
+                        IllegalArgumentException.class, () -> new AsyncDispatcher(new PluginRegistryStub(), executor, 0)
+                );
+    }
+}
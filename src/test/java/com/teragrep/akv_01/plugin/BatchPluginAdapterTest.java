@@ -0,0 +1,112 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventStub;
+import com.teragrep.rlo_14.SyslogMessage;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public final class BatchPluginAdapterTest {
+
+    @Test
+    void testSingleEventPlugin() {
+        final Plugin plugin = parsedEvent -> Arrays
+                .asList(new SyslogMessage().withMsg("first"), new SyslogMessage().withMsg("second"));
+        final List<SyslogMessage> sink = new ArrayList<>();
+        final List<ParsedEvent> events = Arrays.asList(new ParsedEventStub(), new ParsedEventStub());
+
+        Assertions.assertDoesNotThrow(() -> new BatchPluginAdapter(plugin).syslogMessages(events, sink));
+        Assertions.assertEquals(4, sink.size());
+        Assertions.assertEquals("first", sink.get(0).getMsg());
+        Assertions.assertEquals("second", sink.get(3).getMsg());
+    }
+
+    @Test
+    void testBatchPluginIsUsedAsIs() {
+        final List<SyslogMessage> sink = new ArrayList<>();
+        final List<ParsedEvent> events = Arrays.asList(new ParsedEventStub(), new ParsedEventStub());
+
+        Assertions
+                .assertDoesNotThrow(() -> new BatchPluginAdapter(new CountingBatchPlugin()).syslogMessages(events, sink));
+        Assertions.assertEquals(1, sink.size());
+        Assertions.assertEquals("2", sink.get(0).getMsg());
+    }
+
+    @Test
+    void testFailingPlugin() {
+        final List<SyslogMessage> sink = new ArrayList<>();
+        Assertions
+                .assertThrows(PluginException.class, () -> new BatchPluginAdapter(new PluginStub()).syslogMessages(Collections.singletonList(new ParsedEventStub()), sink));
+        Assertions.assertTrue(sink.isEmpty());
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(BatchPluginAdapter.class).verify();
+    }
+
+    private static final class CountingBatchPlugin implements Plugin, BatchPlugin {
+
+        @Override
+        public List<SyslogMessage> syslogMessage(final ParsedEvent parsedEvent) {
+            throw new UnsupportedOperationException("Only batches are supported");
+        }
+
+        @Override
+        public void syslogMessages(final List<ParsedEvent> parsedEvents, final Collection<SyslogMessage> sink) {
+            sink.add(new SyslogMessage().withMsg(String.valueOf(parsedEvents.size())));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class KeyedConcurrencyLimitTest {
+
+    @Test
+    void testLimitPerKey() {
+        final Queue<Runnable> queued = new ArrayDeque<>();
+        final KeyedConcurrencyLimit limit = new KeyedConcurrencyLimit(queued::add, 1);
+        final CompletableFuture<String> first = limit.submit("a", () -> "first");
+        final CompletableFuture<String> second = limit.submit("a", () -> "second");
+        final CompletableFuture<String> other = limit.submit("b", () -> "other");
+        Assertions.assertEquals(2, queued.size());
+
+        queued.poll().run();
+        Assertions.assertEquals("first", first.join());
+        Assertions.assertFalse(second.isDone());
+        queued.poll().run();
+        Assertions.assertEquals("other", other.join());
+        queued.poll().run();
+        Assertions.assertEquals("second", second.join());
+        Assertions.assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void testRejectedTaskReleasesSlot() {
+        final Queue<Runnable> queued = new ArrayDeque<>();
+        final AtomicBoolean reject = new AtomicBoolean();
+        final Executor executor = command -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException("rejected");
+            }
+            queued.add(command);
+        };
+        final KeyedConcurrencyLimit limit = new KeyedConcurrencyLimit(executor, 1);
+
+        reject.set(true);
+        final CompletableFuture<String> rejected = limit.submit("a", () -> "rejected");
+        Assertions.assertTrue(rejected.isDone());
+        final CompletionException exception = Assertions.assertThrows(CompletionException.class, rejected::join);
+        Assertions.assertEquals(RejectedExecutionException.class, exception.getCause().getClass());
+
+        // rejected when started by the completion of the running task
+        reject.set(false);
+        final CompletableFuture<String> running = limit.submit("a", () -> "running");
+        final CompletableFuture<String> waiting = limit.submit("a", () -> "waiting");
+        reject.set(true);
+        queued.poll().run();
+        Assertions.assertEquals("running", running.join());
+        Assertions.assertTrue(waiting.isCompletedExceptionally());
+
+        reject.set(false);
+        final CompletableFuture<String> next = limit.submit("a", () -> "next");
+        Assertions.assertEquals(1, queued.size());
+        queued.poll().run();
+        Assertions.assertEquals("next", next.join());
+    }
+
+    @Test
+    void testManyCompletedQueuedTasks() {
+        final Queue<Runnable> queued = new ArrayDeque<>();
+        final KeyedConcurrencyLimit limit = new KeyedConcurrencyLimit(queued::add, 1);
+        final CompletableFuture<String> running = limit.submit("a", () -> "running");
+        final List<CompletableFuture<String>> timedOut = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            timedOut.add(limit.submit("a", () -> "timed out"));
+        }
+        for (final CompletableFuture<String> future : timedOut) {
+            future.complete("completed while queued");
+        }
+        final CompletableFuture<String> last = limit.submit("a", () -> "last");
+
+        queued.poll().run();
+        Assertions.assertTrue(running.isDone());
+        Assertions.assertEquals("running", running.join());
+        Assertions.assertEquals(1, queued.size());
+        queued.poll().run();
+        Assertions.assertTrue(last.isDone());
+        Assertions.assertEquals("last", last.join());
+    }
+}
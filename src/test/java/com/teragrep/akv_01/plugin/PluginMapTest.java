@@ -98,6 +98,72 @@ public class PluginMapTest {
         Assertions.assertEquals("com.teragrep.akv_01.ExceptionPlugin", pluginMap.exceptionPluginFactoryClassName());
     }
 
+    @Test
+    void testSnapshot() {
+        JsonStructure jsonStructure = Json
+                .createObjectBuilder()
+                .add("defaultPluginFactoryClass", "com.teragrep.akv_01.PluginImpl")
+                .add("exceptionPluginFactoryClass", "com.teragrep.akv_01.ExceptionPlugin")
+                .add("resourceIds", Json.createArrayBuilder().add(Json.createObjectBuilder().add("resourceId", "id").add("pluginFactoryClass", "class").add("pluginFactoryConfig", "/src/test/resources/class.json"))).build();
+        PluginMap pluginMap = new PluginMap(jsonStructure);
+        final PluginMapSnapshot snapshot = Assertions.assertDoesNotThrow(pluginMap::snapshot);
+        Assertions.assertEquals(pluginMap.asUnmodifiableMap(), snapshot.asUnmodifiableMap());
+        Assertions.assertSame(snapshot.asUnmodifiableMap(), snapshot.asUnmodifiableMap());
+        Assertions.assertEquals("com.teragrep.akv_01.PluginImpl", snapshot.defaultPluginFactoryClassName());
+        Assertions.assertEquals("com.teragrep.akv_01.ExceptionPlugin", snapshot.exceptionPluginFactoryClassName());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.asUnmodifiableMap().clear());
+    }
+
+    @Test
+    void testSnapshotReportsAllErrors() {
+        JsonStructure jsonStructure = Json
+                .createObjectBuilder()
+                .add("exceptionPluginFactoryClass", 1)
+                .add("resourceIds", Json.createArrayBuilder().add(Json.createObjectBuilder().add("resourceId", "id").add("pluginFactoryClass", "class").add("pluginFactoryConfig", "")).add(Json.createObjectBuilder().add("resourceId", "id").add("pluginFactoryClass", "").add("pluginFactoryConfig", "")).add("not an object")).build();
+        PluginMap pluginMap = new PluginMap(jsonStructure);
+        JsonException je = Assertions.assertThrows(JsonException.class, pluginMap::snapshot);
+        Assertions
+                .assertEquals(
+                        "Expected <STRING> but got no value defaultPluginFactoryClass; "
+                                + "Expected <STRING> but got <[NUMBER]> exceptionPluginFactoryClass; "
+                                + "Duplicate resourceId: <[\"id\"]> in resourceIds array item <1>; "
+                                + "PluginFactoryClass is empty in resourceIds array item <1>; "
+                                + "Expected <OBJECT> but got <[STRING]> in resourceIds array item <2>",
+                        je.getMessage()
+                );
+    }
+
+    @Test
+    void testSnapshotReportsDuplicatesOfInvalidItems() {
+        JsonStructure jsonStructure = Json
+                .createObjectBuilder()
+                .add("defaultPluginFactoryClass", "default")
+                .add("exceptionPluginFactoryClass", "exception")
+                .add("resourceIds", Json.createArrayBuilder().add(Json.createObjectBuilder().add("resourceId", "id").add("pluginFactoryClass", 1).add("pluginFactoryConfig", "")).add(Json.createObjectBuilder().add("resourceId", "id").add("pluginFactoryClass", "class").add("pluginFactoryConfig", "")).add(Json.createObjectBuilder().add("resourceId", "id").add("pluginFactoryClass", "class").add("pluginFactoryConfig", ""))).build();
+        PluginMap pluginMap = new PluginMap(jsonStructure);
+        JsonException je = Assertions.assertThrows(JsonException.class, pluginMap::snapshot);
+        Assertions
+                .assertEquals(
+                        "Expected <STRING> but got <[NUMBER]> pluginFactoryClass in resourceIds array item <0>; "
+                                + "Duplicate resourceId: <[\"id\"]> in resourceIds array item <1>; "
+                                + "Duplicate resourceId: <[\"id\"]> in resourceIds array item <2>",
+                        je.getMessage()
+                );
+    }
+
+    @Test
+    void testSnapshotOfEmptyJsonArray() {
+        JsonStructure jsonStructure = Json.createArrayBuilder().build();
+        PluginMap pluginMap = new PluginMap(jsonStructure);
+        JsonException je = Assertions.assertThrows(JsonException.class, pluginMap::snapshot);
+        Assertions.assertEquals("Expected <OBJECT> but got <[ARRAY]> in top-level structure", je.getMessage());
+    }
+
+    @Test
+    void testSnapshotEqualsContract() {
+        EqualsVerifier.forClass(PluginMapSnapshot.class).verify();
+    }
+
     @Test
     void testEqualsContract() {
         EqualsVerifier.simple().forClass(PluginMap.class).verify();
@@ -0,0 +1,170 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.rlo_14.SyslogMessage;
+import jakarta.json.Json;
+import jakarta.json.JsonStructure;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+public final class PluginRegistryFactoryTest {
+
+    private static final String configPluginFactory = ConfigPluginFactory.class.getName();
+
+    private JsonStructure json(final String pluginFactoryClass) {
+        return Json
+                .createObjectBuilder()
+                .add("defaultPluginFactoryClass", configPluginFactory)
+                .add("exceptionPluginFactoryClass", PluginStubFactory.class.getName())
+                .add("resourceIds", Json.createArrayBuilder().add(Json.createObjectBuilder().add("resourceId", "123").add("pluginFactoryClass", pluginFactoryClass).add("pluginFactoryConfig", "src/test/resources/123plugin.json")).add(Json.createObjectBuilder().add("resourceId", "456").add("pluginFactoryClass", configPluginFactory).add("pluginFactoryConfig", ""))).build();
+    }
+
+    @Test
+    void testPluginRegistry() {
+        final PluginRegistry registry = Assertions
+                .assertDoesNotThrow(new PluginRegistryFactory(new PluginMap(json(configPluginFactory)))::pluginRegistry);
+
+        Assertions.assertEquals(new ConfigPlugin("src/test/resources/123plugin.json"), registry.plugin("123"));
+        Assertions.assertEquals(new ConfigPlugin(""), registry.plugin("456"));
+        Assertions.assertEquals(new ConfigPlugin(""), registry.defaultPlugin());
+        Assertions.assertEquals(PluginStub.class, registry.exceptionPlugin().getClass());
+        Assertions.assertSame(registry.defaultPlugin(), registry.plugin("789"));
+        Assertions.assertSame(registry.plugin("123"), registry.plugin("123"));
+    }
+
+    @Test
+    void testMissingPluginFactoryClass() {
+        final PluginRegistryFactory factory = new PluginRegistryFactory(new PluginMap(json("NonExistentPlugin")));
+        final PluginException exception = Assertions.assertThrows(PluginException.class, factory::pluginRegistry);
+        Assertions.assertEquals("Could not initialize pluginFactory <NonExistentPlugin>", exception.getMessage());
+        Assertions.assertEquals(ClassNotFoundException.class, exception.getCause().getClass());
+    }
+
+    @Test
+    void testNotPluginFactoryClass() {
+        final PluginRegistryFactory factory = new PluginRegistryFactory(
+                new PluginMap(json(ConfigPlugin.class.getName()))
+        );
+        final PluginException exception = Assertions.assertThrows(PluginException.class, factory::pluginRegistry);
+        Assertions.assertEquals(ClassCastException.class, exception.getCause().getClass());
+    }
+
+    @Test
+    void testRejectedPluginConfig() {
+        final PluginRegistryFactory factory = new PluginRegistryFactory(
+                new PluginMap(json(RejectingPluginFactory.class.getName()))
+        );
+        final PluginException exception = Assertions.assertThrows(PluginException.class, factory::pluginRegistry);
+        Assertions
+                .assertEquals(
+                        "Could not create plugin with pluginFactory <" + RejectingPluginFactory.class.getName()
+                                + "> and config <src/test/resources/123plugin.json>",
+                        exception.getMessage()
+                );
+        Assertions.assertEquals(IllegalArgumentException.class, exception.getCause().getClass());
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(PluginRegistryFactory.class).verify();
+        EqualsVerifier.forClass(PluginRegistryImpl.class).verify();
+    }
+
+    public static final class ConfigPluginFactory implements PluginFactory {
+
+        @Override
+        public Plugin plugin(final String config) {
+            return new ConfigPlugin(config);
+        }
+    }
+
+    public static final class RejectingPluginFactory implements PluginFactory {
+
+        @Override
+        public Plugin plugin(final String config) {
+            throw new IllegalArgumentException("Rejected config <" + config + ">");
+        }
+    }
+
+    public static final class ConfigPlugin implements Plugin {
+
+        private final String config;
+
+        public ConfigPlugin() {
+            this("");
+        }
+
+        public ConfigPlugin(final String config) {
+            this.config = config;
+        }
+
+        @Override
+        public List<SyslogMessage> syslogMessage(final ParsedEvent parsedEvent) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ConfigPlugin that = (ConfigPlugin) o;
+            return Objects.equals(config, that.config);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(config);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import jakarta.json.Json;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BooleanSupplier;
+
+public final class ReloadingPluginRegistryTest {
+
+    @TempDir
+    private Path directory;
+
+    private void writePluginMap(final Path file, final String configPath) throws IOException {
+        writePluginMap(file, configPath, PluginRegistryFactoryTest.ConfigPluginFactory.class.getName());
+    }
+
+    private void writePluginMap(final Path file, final String configPath, final String pluginFactory)
+            throws IOException {
+        final String configPluginFactory = PluginRegistryFactoryTest.ConfigPluginFactory.class.getName();
+        final String json = Json
+                .createObjectBuilder()
+                .add("defaultPluginFactoryClass", configPluginFactory)
+                .add("exceptionPluginFactoryClass", PluginStubFactory.class.getName())
+                .add("resourceIds", Json.createArrayBuilder().add(Json.createObjectBuilder().add("resourceId", "123").add("pluginFactoryClass", pluginFactory).add("pluginFactoryConfig", configPath))).build().toString();
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean eventually(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + 30_000_000_000L;
+        boolean result = condition.getAsBoolean();
+        while (!result && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            result = condition.getAsBoolean();
+        }
+        return result;
+    }
+
+    @Test
+    void testReload() throws IOException, PluginException {
+        final Path pluginMapFile = directory.resolve("plugins.json");
+        writePluginMap(pluginMapFile, "first.json");
+        final ReloadingPluginRegistry registry = new ReloadingPluginRegistry(pluginMapFile);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> registry.plugin("123"));
+
+        registry.reload();
+        final PluginRegistry first = registry.current();
+        Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first.json"), registry.plugin("123"));
+
+        writePluginMap(pluginMapFile, "second.json");
+        registry.reload();
+        Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("second.json"), registry.plugin("123"));
+        Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first.json"), first.plugin("123"));
+    }
+
+    @Test
+    void testFailedReloadKeepsPreviousRegistry() throws IOException, PluginException {
+        final Path pluginMapFile = directory.resolve("plugins.json");
+        writePluginMap(pluginMapFile, "first.json");
+        final ReloadingPluginRegistry registry = new ReloadingPluginRegistry(pluginMapFile);
+        registry.reload();
+
+        Files.write(pluginMapFile, "{\"resourceIds\": []}".getBytes(StandardCharsets.UTF_8));
+        final PluginException exception = Assertions.assertThrows(PluginException.class, registry::reload);
+        Assertions.assertEquals("Could not load plugin configuration <" + pluginMapFile + ">", exception.getMessage());
+        Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first.json"), registry.plugin("123"));
+    }
+
+    @Test
+    void testWatchesConfigurationFiles() throws IOException, PluginException, InterruptedException {
+        final Path pluginMapFile = directory.resolve("plugins.json");
+        final Path pluginConfigFile = directory.resolve("plugin-config.json");
+        Files.write(pluginConfigFile, "{}".getBytes(StandardCharsets.UTF_8));
+        writePluginMap(pluginMapFile, pluginConfigFile.toString());
+
+        try (final ReloadingPluginRegistry registry = new ReloadingPluginRegistry(pluginMapFile)) {
+            registry.start();
+            final PluginRegistry first = registry.current();
+
+            Files.write(pluginConfigFile, "{\"changed\": true}".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertTrue(eventually(() -> registry.current() != first));
+
+            writePluginMap(pluginMapFile, "second.json");
+            Assertions
+                    .assertTrue(eventually(() -> new PluginRegistryFactoryTest.ConfigPlugin("second.json").equals(registry.plugin("123"))));
+
+            Files.write(pluginMapFile, "[]".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertTrue(eventually(() -> registry.lastReloadFailure().isPresent()));
+            Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("second.json"), registry.plugin("123"));
+        }
+    }
+
+    @Test
+    void testWatchesMovedConfigurationFile() throws IOException, PluginException, InterruptedException {
+        final Path pluginMapFile = directory.resolve("plugins.json");
+        final Path firstConfigFile = directory.resolve("plugin-config.json");
+        Files.write(firstConfigFile, "first".getBytes(StandardCharsets.UTF_8));
+        writePluginMap(pluginMapFile, firstConfigFile.toString(), RejectingPluginFactory.class.getName());
+
+        try (final ReloadingPluginRegistry registry = new ReloadingPluginRegistry(pluginMapFile)) {
+            registry.start();
+            Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first"), registry.plugin("123"));
+
+            final Path secondConfigFile = Files
+                    .createDirectory(directory.resolve("moved"))
+                    .resolve("plugin-config.json");
+            Files.write(secondConfigFile, "second".getBytes(StandardCharsets.UTF_8));
+            writePluginMap(pluginMapFile, secondConfigFile.toString(), RejectingPluginFactory.class.getName());
+            Assertions
+                    .assertTrue(eventually(() -> new PluginRegistryFactoryTest.ConfigPlugin("second").equals(registry.plugin("123"))));
+
+            Files.write(secondConfigFile, "third".getBytes(StandardCharsets.UTF_8));
+            Assertions
+                    .assertTrue(eventually(() -> new PluginRegistryFactoryTest.ConfigPlugin("third").equals(registry.plugin("123"))));
+        }
+    }
+
+    @Test
+    void testRuntimeFailureKeepsWatching() throws IOException, PluginException, InterruptedException {
+        final Path pluginMapFile = directory.resolve("plugins.json");
+        final Path pluginConfigFile = directory.resolve("plugin-config.json");
+        Files.write(pluginConfigFile, "first".getBytes(StandardCharsets.UTF_8));
+        writePluginMap(pluginMapFile, pluginConfigFile.toString(), RejectingPluginFactory.class.getName());
+
+        try (final ReloadingPluginRegistry registry = new ReloadingPluginRegistry(pluginMapFile)) {
+            registry.start();
+            Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first"), registry.plugin("123"));
+
+            Files.write(pluginConfigFile, "broken".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertTrue(eventually(() -> registry.lastReloadFailure().isPresent()));
+            Assertions
+                    .assertEquals(
+                            IllegalArgumentException.class, registry.lastReloadFailure().get().getCause().getClass()
+                    );
+            Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first"), registry.plugin("123"));
+
+            Files.write(pluginConfigFile, "second".getBytes(StandardCharsets.UTF_8));
+            // the failure is cleared after the new registry is swapped in
+            Assertions
+                    .assertTrue(eventually(() -> new PluginRegistryFactoryTest.ConfigPlugin("second").equals(registry.plugin("123")) && !registry.lastReloadFailure().isPresent()));
+        }
+    }
+
+    @Test
+    void testSymbolicLinkSwap() throws IOException, PluginException, InterruptedException {
+        // kubernetes configmap mounts swap the ..data link to a new directory
+        final Path mount = Files.createDirectory(directory.resolve("mount"));
+        final Path firstData = Files.createDirectory(mount.resolve("..first"));
+        Files.write(firstData.resolve("plugin-config.json"), "first".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(mount.resolve("..data"), firstData.getFileName());
+        final Path pluginConfigFile = Files
+                .createSymbolicLink(mount.resolve("plugin-config.json"), mount.getFileSystem().getPath("..data", "plugin-config.json"));
+        final Path pluginMapFile = directory.resolve("plugins.json");
+        writePluginMap(pluginMapFile, pluginConfigFile.toString(), RejectingPluginFactory.class.getName());
+
+        try (final ReloadingPluginRegistry registry = new ReloadingPluginRegistry(pluginMapFile)) {
+            registry.start();
+            Assertions.assertEquals(new PluginRegistryFactoryTest.ConfigPlugin("first"), registry.plugin("123"));
+
+            final Path secondData = Files.createDirectory(mount.resolve("..second"));
+            Files.write(secondData.resolve("plugin-config.json"), "second".getBytes(StandardCharsets.UTF_8));
+            final Path newLink = Files.createSymbolicLink(mount.resolve("..data_tmp"), secondData.getFileName());
+            Files.move(newLink, mount.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+            Assertions
+                    .assertTrue(eventually(() -> new PluginRegistryFactoryTest.ConfigPlugin("second").equals(registry.plugin("123"))));
+        }
+    }
+
+    /**
+     * Creates plugins from the contents of the config file, rejects the contents "broken" at runtime.
+     */
+    public static final class RejectingPluginFactory implements PluginFactory {
+
+        @Override
+        public Plugin plugin(final String config) {
+            final String content;
+            try {
+                content = new String(Files.readAllBytes(Paths.get(config)), StandardCharsets.UTF_8);
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if ("broken".equals(content)) {
+                throw new IllegalArgumentException("Rejected config <" + config + ">");
+            }
+            return new PluginRegistryFactoryTest.ConfigPlugin(content);
+        }
+    }
+}
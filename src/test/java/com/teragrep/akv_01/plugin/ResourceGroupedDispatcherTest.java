@@ -0,0 +1,314 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin;
+
+import com.teragrep.akv_01.event.ParsedEvent;
+import com.teragrep.akv_01.event.ParsedEventListFactory;
+import com.teragrep.akv_01.plugin.metrics.InMemoryDispatchMetrics;
+import com.teragrep.akv_01.plugin.metrics.PluginDispatchMetrics;
+import com.teragrep.rlo_14.SyslogMessage;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ResourceGroupedDispatcherTest {
+
+    private Plugin prefixPlugin(final String prefix) {
+        return parsedEvent -> Collections.singletonList(new SyslogMessage().withMsg(prefix + parsedEvent.payload()));
+    }
+
+    private Plugin failingPlugin(final String prefix) {
+        return parsedEvent -> {
+            if (parsedEvent.payload().contains("fail")) {
+                throw new PluginException("failed");
+            }
+            return Collections.singletonList(new SyslogMessage().withMsg(prefix + parsedEvent.payload()));
+        };
+    }
+
+    private PluginRegistry registry() {
+        final Map<String, Plugin> plugins = new HashMap<>();
+        plugins.put("a", prefixPlugin("a:"));
+        plugins.put("b", failingPlugin("b:"));
+        return new PluginRegistryImpl(plugins, prefixPlugin("default:"), prefixPlugin("exception:"));
+    }
+
+    private List<String> messages(final List<SyslogMessage> syslogMessages) {
+        final List<String> messages = new ArrayList<>();
+        for (final SyslogMessage syslogMessage : syslogMessages) {
+            messages.add(syslogMessage.getMsg());
+        }
+        return messages;
+    }
+
+    @Test
+    void testGroupedDispatch() {
+        final String[] payloads = new String[] {
+                "{\"resourceId\":\"a\",\"n\":1}",
+                "plain",
+                "{\"resourceId\":\"b\",\"n\":2}",
+                "{\"resourceId\":\"a\",\"n\":3}",
+                "{\"resourceId\":\"unknown\",\"n\":4}",
+                "{\"n\":5}"
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(payloads, null, null, null, null, null).asList();
+
+        final List<SyslogMessage> syslogMessages = Assertions
+                .assertDoesNotThrow(() -> new ResourceGroupedDispatcher(registry()).syslogMessages(events));
+        final List<String> expected = new ArrayList<>();
+        expected.add("a:" + payloads[0]);
+        expected.add("a:" + payloads[3]);
+        expected.add("default:" + payloads[1]);
+        expected.add("default:" + payloads[5]);
+        expected.add("b:" + payloads[2]);
+        expected.add("default:" + payloads[4]);
+        Assertions.assertEquals(expected, messages(syslogMessages));
+    }
+
+    @Test
+    void testFailingEventsGoToExceptionPlugin() {
+        final String[] payloads = new String[] {
+                "{\"resourceId\":\"b\",\"n\":1}",
+                "{\"resourceId\":\"b\",\"n\":\"fail\"}",
+                "{\"resourceId\":\"b\",\"n\":3}"
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(payloads, null, null, null, null, null).asList();
+
+        final List<SyslogMessage> syslogMessages = Assertions
+                .assertDoesNotThrow(() -> new ResourceGroupedDispatcher(registry()).syslogMessages(events));
+        final List<String> expected = new ArrayList<>();
+        expected.add("b:" + payloads[0]);
+        expected.add("exception:" + payloads[1]);
+        expected.add("b:" + payloads[2]);
+        Assertions.assertEquals(expected, messages(syslogMessages));
+    }
+
+    @Test
+    void testMetrics() {
+        final String[] payloads = new String[] {
+                "{\"resourceId\":\"a\",\"n\":1}",
+                "plain",
+                "{\"resourceId\":\"b\",\"n\":\"fail\"}",
+                "{\"resourceId\":\"a\",\"n\":3}",
+                "{\"resourceId\":\"b\",\"n\":4}",
+                "{\"resourceId\":\"unknown\",\"n\":5}"
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(payloads, null, null, null, null, null).asList();
+        final PluginRegistry registry = registry();
+        final InMemoryDispatchMetrics metrics = new InMemoryDispatchMetrics();
+
+        Assertions.assertDoesNotThrow(() -> new ResourceGroupedDispatcher(registry, metrics).syslogMessages(events));
+
+        final PluginDispatchMetrics a = metrics.asMap().get("a").get(registry.plugin("a").getClass().getName());
+        Assertions.assertEquals(2, a.events());
+        Assertions.assertEquals(2, a.parseLatency().count());
+        Assertions.assertEquals(2, a.routeLatency().count());
+        // plain plugins are called once per event
+        Assertions.assertEquals(2, a.syslogMessageLatency().count());
+        Assertions.assertEquals(0, a.pluginExceptions());
+        Assertions.assertEquals(0, a.defaultFallbacks());
+
+        final PluginDispatchMetrics b = metrics.asMap().get("b").get(registry.plugin("b").getClass().getName());
+        Assertions.assertEquals(2, b.events());
+        Assertions.assertEquals(2, b.syslogMessageLatency().count());
+        Assertions.assertEquals(1, b.pluginExceptions());
+        Assertions.assertEquals(1, b.exceptionFallbacks());
+
+        final String defaultClassName = registry.defaultPlugin().getClass().getName();
+        // unconfigured resourceIds are reported together with events without a resourceId
+        Assertions.assertEquals(2, metrics.asMap().get("").get(defaultClassName).defaultFallbacks());
+        Assertions.assertEquals(2, metrics.asMap().get("").get(defaultClassName).events());
+        Assertions.assertFalse(metrics.asMap().containsKey("unknown"));
+    }
+
+    @Test
+    void testUsesCurrentRegistry() {
+        final PluginRegistry current = registry();
+        final PluginRegistry reloading = new PluginRegistry() {
+
+            @Override
+            public Plugin plugin(final String resourceId) {
+                throw new AssertionError("lookup outside of the current registry");
+            }
+
+            @Override
+            public Plugin defaultPlugin() {
+                throw new AssertionError("lookup outside of the current registry");
+            }
+
+            @Override
+            public Plugin exceptionPlugin() {
+                throw new AssertionError("lookup outside of the current registry");
+            }
+
+            @Override
+            public PluginRegistry current() {
+                return current;
+            }
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(new String[] {
+                "{\"resourceId\":\"a\"}", "{\"resourceId\":\"b\",\"n\":\"fail\"}", "plain"
+        }, null, null, null, null, null).asList();
+
+        final List<SyslogMessage> syslogMessages = Assertions
+                .assertDoesNotThrow(() -> new ResourceGroupedDispatcher(reloading, new InMemoryDispatchMetrics()).syslogMessages(events));
+        Assertions.assertEquals(3, syslogMessages.size());
+    }
+
+    @Test
+    void testPlainPluginCalledOncePerEvent() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Plugin failing = failingPlugin("b:");
+        final Map<String, Plugin> plugins = new HashMap<>();
+        plugins.put("b", parsedEvent -> {
+            calls.incrementAndGet();
+            return failing.syslogMessage(parsedEvent);
+        });
+        final PluginRegistry registry = new PluginRegistryImpl(
+                plugins,
+                prefixPlugin("default:"),
+                prefixPlugin("exception:")
+        );
+        final List<ParsedEvent> events = new ParsedEventListFactory(new String[] {
+                "{\"resourceId\":\"b\",\"n\":1}",
+                "{\"resourceId\":\"b\",\"n\":\"fail\"}",
+                "{\"resourceId\":\"b\",\"n\":3}"
+        }, null, null, null, null, null).asList();
+
+        Assertions.assertDoesNotThrow(() -> new ResourceGroupedDispatcher(registry).syslogMessages(events));
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testFailedBatchPluginGroupGoesToExceptionPlugin() {
+        final List<String> processed = new ArrayList<>();
+        final Map<String, Plugin> plugins = new HashMap<>();
+        plugins.put("b", new RecordingBatchPlugin(processed));
+        final PluginRegistry registry = new PluginRegistryImpl(
+                plugins,
+                prefixPlugin("default:"),
+                prefixPlugin("exception:")
+        );
+        final String[] payloads = new String[] {
+                "{\"resourceId\":\"b\",\"n\":1}",
+                "{\"resourceId\":\"b\",\"n\":\"fail\"}",
+                "{\"resourceId\":\"b\",\"n\":3}",
+                "{\"resourceId\":\"a\",\"n\":4}"
+        };
+        final List<ParsedEvent> events = new ParsedEventListFactory(payloads, null, null, null, null, null).asList();
+        final InMemoryDispatchMetrics metrics = new InMemoryDispatchMetrics();
+
+        final List<SyslogMessage> syslogMessages = Assertions
+                .assertDoesNotThrow(() -> new ResourceGroupedDispatcher(registry, metrics).syslogMessages(events));
+        final List<String> expected = new ArrayList<>();
+        expected.add("exception:" + payloads[0]);
+        expected.add("exception:" + payloads[1]);
+        expected.add("exception:" + payloads[2]);
+        expected.add("default:" + payloads[3]);
+        Assertions.assertEquals(expected, messages(syslogMessages));
+        // the plugin is not called again, events processed before the failure are not processed twice
+        Assertions.assertEquals(Collections.singletonList(payloads[0]), processed);
+
+        final PluginDispatchMetrics b = metrics.asMap().get("b").get(RecordingBatchPlugin.class.getName());
+        Assertions.assertEquals(3, b.events());
+        Assertions.assertEquals(1, b.syslogMessageLatency().count());
+        Assertions.assertEquals(1, b.pluginExceptions());
+        Assertions.assertEquals(3, b.exceptionFallbacks());
+    }
+
+    @Test
+    void testFailingExceptionPlugin() {
+        final PluginRegistry registry = new PluginRegistryImpl(
+                Collections.emptyMap(),
+                failingPlugin("default:"),
+                new PluginStub()
+        );
+        final List<ParsedEvent> events = new ParsedEventListFactory(new String[] {
+                "fail"
+        }, null, null, null, null, null).asList();
+        Assertions
+                .assertThrows(PluginException.class, () -> new ResourceGroupedDispatcher(registry).syslogMessages(events));
+    }
+
+    @Test
+    void testEqualsContract() {
+        EqualsVerifier.forClass(ResourceGroupedDispatcher.class).verify();
+    }
+
+    private static final class RecordingBatchPlugin implements Plugin, BatchPlugin {
+
+        private final List<String> processed;
+
+        private RecordingBatchPlugin(final List<String> processed) {
+            this.processed = processed;
+        }
+
+        @Override
+        public List<SyslogMessage> syslogMessage(final ParsedEvent parsedEvent) throws PluginException {
+            if (parsedEvent.payload().contains("fail")) {
+                throw new PluginException("failed");
+            }
+            processed.add(parsedEvent.payload());
+            return Collections.singletonList(new SyslogMessage().withMsg("b:" + parsedEvent.payload()));
+        }
+
+        @Override
+        public void syslogMessages(final List<ParsedEvent> parsedEvents, final Collection<SyslogMessage> sink)
+                throws PluginException {
+            for (final ParsedEvent parsedEvent : parsedEvents) {
+                sink.addAll(syslogMessage(parsedEvent));
+            }
+        }
+    }
+}
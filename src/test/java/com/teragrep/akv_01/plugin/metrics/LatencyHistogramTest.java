@@ -0,0 +1,120 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.plugin.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public final class LatencyHistogramTest {
+
+    @Test
+    void testEmpty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.count());
+        Assertions.assertEquals(0, histogram.sum());
+        Assertions.assertEquals(0, histogram.max());
+        Assertions.assertEquals(0, histogram.percentile(50));
+    }
+
+    @Test
+    void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(10_000);
+        }
+        Assertions.assertEquals(100, histogram.count());
+        Assertions.assertEquals(90 * 100 + 10 * 10_000, histogram.sum());
+        Assertions.assertEquals(10_000, histogram.max());
+        // 100 is in the bucket 64..127
+        Assertions.assertEquals(127, histogram.percentile(50));
+        Assertions.assertEquals(127, histogram.percentile(90));
+        // 10000 is in the bucket 8192..16383, capped at max
+        Assertions.assertEquals(10_000, histogram.percentile(91));
+        Assertions.assertEquals(10_000, histogram.percentile(100));
+    }
+
+    @Test
+    void testZeroAndNegative() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(-5);
+        Assertions.assertEquals(2, histogram.count());
+        Assertions.assertEquals(0, histogram.sum());
+        Assertions.assertEquals(0, histogram.percentile(100));
+    }
+
+    @Test
+    void testLargeValue() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.max());
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.percentile(50));
+    }
+
+    @Test
+    void testConcurrentRecording() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int j = 1; j <= 1000; j++) {
+                    histogram.record(j);
+                }
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+        Assertions.assertEquals(8000, histogram.count());
+        Assertions.assertEquals(8L * 1000 * 1001 / 2, histogram.sum());
+        Assertions.assertEquals(1000, histogram.max());
+    }
+}
@@ -77,5 +77,7 @@ public final class EnqueuedTimeFactoryTest {
         final UnsupportedOperationException exception = Assertions
                 .assertThrows(UnsupportedOperationException.class, enqueuedTime::zonedDateTime);
         Assertions.assertEquals("Stub object does not provide zonedDateTime", exception.getMessage());
+        Assertions.assertThrows(UnsupportedOperationException.class, enqueuedTime::instant);
+        Assertions.assertThrows(UnsupportedOperationException.class, enqueuedTime::epochMillis);
     }
 }
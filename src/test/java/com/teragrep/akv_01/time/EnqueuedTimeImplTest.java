@@ -45,12 +45,16 @@
  */
 package com.teragrep.akv_01.time;
 
+import com.teragrep.akv_01.event.metadata.time.EnqueuedTime;
 import com.teragrep.akv_01.event.metadata.time.EnqueuedTimeImpl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.Date;
 
 public final class EnqueuedTimeImplTest {
 
@@ -77,4 +81,66 @@ public final class EnqueuedTimeImplTest {
         Assertions.assertEquals(origin, enqueuedTime.toString());
         Assertions.assertThrows(DateTimeParseException.class, enqueuedTime::zonedDateTime);
     }
+
+    @Test
+    void testStringOriginIsParsedOnce() {
+        final EnqueuedTimeImpl enqueuedTime = new EnqueuedTimeImpl("2010-01-01T00:00:00");
+        Assertions.assertSame(enqueuedTime.zonedDateTime(), enqueuedTime.zonedDateTime());
+        Assertions.assertEquals(Instant.parse("2010-01-01T00:00:00Z"), enqueuedTime.instant());
+        Assertions.assertEquals(1262304000000L, enqueuedTime.epochMillis());
+    }
+
+    @Test
+    void testInstantOrigin() {
+        final Instant origin = Instant.parse("2010-01-01T00:00:00.123Z");
+        final EnqueuedTimeImpl enqueuedTime = new EnqueuedTimeImpl(origin);
+        Assertions.assertSame(origin, enqueuedTime.instant());
+        Assertions.assertEquals(origin.toEpochMilli(), enqueuedTime.epochMillis());
+        Assertions.assertEquals(ZonedDateTime.parse("2010-01-01T00:00:00.123Z"), enqueuedTime.zonedDateTime());
+        Assertions.assertEquals(ZoneOffset.UTC, enqueuedTime.zonedDateTime().getZone());
+    }
+
+    @Test
+    void testDateOrigin() {
+        final Date origin = new Date(1262304000123L);
+        final EnqueuedTimeImpl enqueuedTime = new EnqueuedTimeImpl(origin);
+        Assertions.assertEquals(Instant.ofEpochMilli(1262304000123L), enqueuedTime.instant());
+        Assertions.assertEquals(1262304000123L, enqueuedTime.epochMillis());
+        Assertions.assertEquals(ZonedDateTime.parse("2010-01-01T00:00:00.123Z"), enqueuedTime.zonedDateTime());
+    }
+
+    @Test
+    void testEpochMillisOrigin() {
+        final EnqueuedTimeImpl enqueuedTime = new EnqueuedTimeImpl(1262304000123L);
+        Assertions.assertEquals("1262304000123", enqueuedTime.toString());
+        Assertions.assertEquals(1262304000123L, enqueuedTime.epochMillis());
+        Assertions.assertEquals(ZonedDateTime.parse("2010-01-01T00:00:00.123Z"), enqueuedTime.zonedDateTime());
+    }
+
+    @Test
+    void testNullOrigin() {
+        final EnqueuedTimeImpl enqueuedTime = new EnqueuedTimeImpl(null);
+        Assertions.assertThrows(IllegalArgumentException.class, enqueuedTime::zonedDateTime);
+        Assertions.assertThrows(IllegalArgumentException.class, enqueuedTime::instant);
+        Assertions.assertThrows(IllegalArgumentException.class, enqueuedTime::epochMillis);
+    }
+
+    @Test
+    void testDefaultsDerivedFromZonedDateTime() {
+        // implementations written before instant() and epochMillis() existed provide only zonedDateTime()
+        final EnqueuedTime enqueuedTime = new EnqueuedTime() {
+
+            @Override
+            public ZonedDateTime zonedDateTime() {
+                return ZonedDateTime.parse("2010-01-01T02:00:00.123+02:00");
+            }
+
+            @Override
+            public boolean isStub() {
+                return false;
+            }
+        };
+        Assertions.assertEquals(Instant.parse("2010-01-01T00:00:00.123Z"), enqueuedTime.instant());
+        Assertions.assertEquals(1262304000123L, enqueuedTime.epochMillis());
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Teragrep Key Value Mapping for Microsoft Azure EventHub
+ * Copyright (C) 2024 Suomen Kanuuna Oy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ * Additional permission under GNU Affero General Public License version 3
+ * section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining it
+ * with other code, such other code is not for that reason alone subject to any
+ * of the requirements of the GNU Affero GPL version 3 as long as this Program
+ * is the same Program as licensed from Suomen Kanuuna Oy without any additional
+ * modifications.
+ *
+ * Supplemented terms under GNU Affero General Public License version 3
+ * section 7
+ *
+ * Origin of the software must be attributed to Suomen Kanuuna Oy. Any modified
+ * versions must be marked as "Modified version of" The Program.
+ *
+ * Names of the licensors and authors may not be used for publicity purposes.
+ *
+ * No rights are granted for use of trade names, trademarks, or service marks
+ * which are in The Program if any.
+ *
+ * Licensee must indemnify licensors and authors for any liability that these
+ * contractual assumptions impose on licensors and authors.
+ *
+ * To the extent this program is licensed as part of the Commercial versions of
+ * Teragrep, the applicable Commercial License may apply to this file if you as
+ * a licensee so wish it.
+ */
+package com.teragrep.akv_01.time;
+
+import com.teragrep.akv_01.event.metadata.time.UtcTimestamp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+public final class UtcTimestampTest {
+
+    private static final long minEpochSecond = LocalDateTime.of(0, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long maxEpochSecond = LocalDateTime.of(9999, 12, 31, 23, 59, 59).toEpochSecond(ZoneOffset.UTC);
+
+    @Test
+    void testEventHubShape() {
+        Assertions
+                .assertEquals(ZonedDateTime.parse("2024-02-29T12:34:56.1234567Z"), new UtcTimestamp("2024-02-29T12:34:56.1234567").zonedDateTime());
+        Assertions
+                .assertEquals(ZonedDateTime.parse("2010-01-01T00:00:00Z"), new UtcTimestamp("2010-01-01T00:00:00").zonedDateTime());
+    }
+
+    @Test
+    void testFallbackShapes() {
+        final String[] values = new String[] {
+                "2010-01-01T00:00", "2010-01-01t00:00:00", "+12010-01-01T00:00:00", "2010-01-01T00:00:00."
+        };
+        for (final String value : values) {
+            assertSameAsJdk(value);
+        }
+    }
+
+    @Test
+    void testInvalidValues() {
+        final String[] values = new String[] {
+                "2010-02-29T00:00:00",
+                "2010-04-31T00:00:00",
+                "2010-13-01T00:00:00",
+                "2010-00-01T00:00:00",
+                "2010-01-00T00:00:00",
+                "2010-01-01T24:00:00",
+                "2010-01-01T00:60:00",
+                "2010-01-01T00:00:60",
+                "2010-01-01T00:00:00.1234567890",
+                "2010-01-01T00:00:00Z",
+                "2010-01-01 00:00:00",
+                ""
+        };
+        for (final String value : values) {
+            Assertions.assertThrows(DateTimeParseException.class, new UtcTimestamp(value)::zonedDateTime, value);
+            assertSameAsJdk(value);
+        }
+    }
+
+    @Test
+    void testSameResultsAsJdkOverValidRange() {
+        final Random random = new Random(20240101L);
+        for (int i = 0; i < 20_000; i++) {
+            final long epochSecond = minEpochSecond + (long) (random.nextDouble() * (maxEpochSecond - minEpochSecond));
+            final LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+            final StringBuilder value = new StringBuilder(
+                    String
+                            .format(
+                                    "%04d-%02d-%02dT%02d:%02d:%02d", dateTime.getYear(), dateTime.getMonthValue(),
+                                    dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute(),
+                                    dateTime.getSecond()
+                            )
+            );
+            final int fractionDigits = random.nextInt(10);
+            if (fractionDigits > 0) {
+                value.append('.');
+                for (int digit = 0; digit < fractionDigits; digit++) {
+                    value.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            assertSameAsJdk(value.toString());
+        }
+    }
+
+    @Test
+    void testSameResultsAsJdkForMutatedValues() {
+        final Random random = new Random(20240102L);
+        final String alphabet = "0123456789-:T.Zt +";
+        for (int i = 0; i < 20_000; i++) {
+            final StringBuilder value = new StringBuilder("2024-02-29T12:34:56.1234567");
+            final int mutations = 1 + random.nextInt(3);
+            for (int mutation = 0; mutation < mutations; mutation++) {
+                final int index = random.nextInt(value.length());
+                final char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                final int kind = random.nextInt(3);
+                if (kind == 0) {
+                    value.setCharAt(index, c);
+                }
+                else if (kind == 1) {
+                    value.insert(index, c);
+                }
+                else if (value.length() > 1) {
+                    value.deleteCharAt(index);
+                }
+            }
+            assertSameAsJdk(value.toString());
+        }
+    }
+
+    private void assertSameAsJdk(final String value) {
+        ZonedDateTime expected = null;
+        String expectedError = null;
+        try {
+            expected = ZonedDateTime.parse(value + "Z");
+        }
+        catch (final DateTimeParseException e) {
+            expectedError = e.getMessage();
+        }
+
+        if (expectedError == null) {
+            Assertions.assertEquals(expected, new UtcTimestamp(value).zonedDateTime(), value);
+        }
+        else {
+            final DateTimeParseException exception = Assertions
+                    .assertThrows(DateTimeParseException.class, new UtcTimestamp(value)::zonedDateTime, value);
+            Assertions.assertEquals(expectedError, exception.getMessage(), value);
+        }
+    }
+}